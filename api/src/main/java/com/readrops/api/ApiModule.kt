@@ -1,7 +1,9 @@
 package com.readrops.api
 
 import com.chimerapps.niddler.interceptor.okhttp.NiddlerOkHttpInterceptor
+import com.readrops.api.localfeed.LocalFeedDispatcher
 import com.readrops.api.localfeed.LocalRSSDataSource
+import com.readrops.api.localfeed.json.JSONFeedAdapter
 import com.readrops.api.services.Credentials
 import com.readrops.api.services.freshrss.FreshRSSDataSource
 import com.readrops.api.services.freshrss.FreshRSSService
@@ -15,14 +17,20 @@ import com.readrops.api.utils.AuthInterceptor
 import com.readrops.db.entities.Item
 import com.squareup.moshi.Moshi
 import com.squareup.moshi.Types
+import okhttp3.Cache
 import okhttp3.OkHttpClient
+import org.koin.android.ext.koin.androidContext
 import org.koin.core.qualifier.named
 import org.koin.dsl.module
 import retrofit2.Retrofit
 import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory
 import retrofit2.converter.moshi.MoshiConverterFactory
+import java.io.File
 import java.util.concurrent.TimeUnit
 
+private const val HTTP_CACHE_DIRECTORY = "http_cache"
+private const val HTTP_CACHE_MAX_SIZE = 50L * 1024 * 1024
+
 val apiModule = module {
 
     single {
@@ -31,13 +39,20 @@ val apiModule = module {
                 .readTimeout(1, TimeUnit.HOURS)
                 .addInterceptor(get<AuthInterceptor>())
                 .addInterceptor(NiddlerOkHttpInterceptor(get(), "niddler"))
+                .cache(get())
                 .build()
     }
 
+    single { Cache(File(androidContext().cacheDir, HTTP_CACHE_DIRECTORY), HTTP_CACHE_MAX_SIZE) }
+
     single { AuthInterceptor() }
 
     single { LocalRSSDataSource(get()) }
 
+    single { JSONFeedAdapter() }
+
+    single { LocalFeedDispatcher() }
+
     //region freshrss
 
     factory { params -> FreshRSSDataSource(get(parameters = { params })) }
@@ -0,0 +1,53 @@
+package com.readrops.api.localfeed
+
+import java.util.concurrent.TimeUnit
+
+/**
+ * Computes when a local feed should be refreshed again, based on how often it publishes items.
+ * A feed is checked about twice per publication interval, a feed which has been quiet for longer
+ * than usual being checked less and less often.
+ */
+object FeedRefreshScheduler {
+
+    /**
+     * Number of latest publication dates used to learn a feed cadence
+     */
+    const val PUB_DATES_COUNT = 10
+
+    @JvmField
+    val MIN_DELAY = TimeUnit.MINUTES.toMillis(15)
+
+    @JvmField
+    val MAX_DELAY = TimeUnit.DAYS.toMillis(1)
+
+    /**
+     * Interval used when there are not enough items to know the feed cadence
+     */
+    private val DEFAULT_INTERVAL = TimeUnit.HOURS.toMillis(2)
+
+    /**
+     * @param pubDates publication dates in milliseconds of the latest feed items, newest first
+     * @param newItems true if the last refresh brought new items
+     * @param now current time in milliseconds
+     * @return the time in milliseconds from which the feed should be refreshed again
+     */
+    @JvmStatic
+    fun nextRefresh(pubDates: List<Long>, newItems: Boolean, now: Long): Long {
+        var interval = medianInterval(pubDates) ?: DEFAULT_INTERVAL
+
+        // nothing new since the last publication, the feed may post less often than it used to
+        if (!newItems && pubDates.isNotEmpty()) {
+            interval = maxOf(interval, now - pubDates.first())
+        }
+
+        return now + (interval / 2).coerceIn(MIN_DELAY, MAX_DELAY)
+    }
+
+    private fun medianInterval(pubDates: List<Long>): Long? {
+        val intervals = pubDates.zipWithNext { newer, older -> newer - older }
+                .filter { it > 0 }
+                .sorted()
+
+        return if (intervals.isNotEmpty()) intervals[intervals.size / 2] else null
+    }
+}
@@ -0,0 +1,35 @@
+package com.readrops.api.localfeed
+
+import java.io.IOException
+import java.util.concurrent.TimeUnit
+
+/**
+ * Exponential backoff applied to local feeds failing to be fetched
+ */
+object FetchBackoff {
+
+    @JvmField
+    val BASE_DELAY = TimeUnit.MINUTES.toMillis(15)
+
+    @JvmField
+    val MAX_DELAY = TimeUnit.DAYS.toMillis(2)
+
+    /**
+     * @param failureCount number of consecutive failures, including the last one
+     * @param now current time in milliseconds
+     * @return the time in milliseconds from which the feed can be fetched again
+     */
+    @JvmStatic
+    fun retryAfter(failureCount: Int, now: Long): Long {
+        val shift = (failureCount - 1).coerceIn(0, 20)
+
+        return now + minOf(BASE_DELAY shl shift, MAX_DELAY)
+    }
+
+    /**
+     * Network errors (unknown host, timeout, refused connection...) concern the whole host
+     * while other errors, like a parsing one or a 404 response, only concern the feed
+     */
+    @JvmStatic
+    fun isHostFailure(throwable: Throwable) = throwable is IOException
+}
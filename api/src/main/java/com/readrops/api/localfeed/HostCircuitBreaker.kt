@@ -0,0 +1,49 @@
+package com.readrops.api.localfeed
+
+import com.readrops.db.entities.HostFailure
+
+/**
+ * Stops querying a host once [failureThreshold] of its feeds failed in a row because of
+ * network errors, the host being most likely unreachable.
+ * The circuit stays open until the latest retry time given for the host.
+ * The state of each host starts from [failures], the ones stored by the previous syncs.
+ */
+class HostCircuitBreaker(
+        private val failureThreshold: Int = DEFAULT_FAILURE_THRESHOLD,
+        failures: Collection<HostFailure> = emptyList(),
+) {
+
+    private val failures = failures.associateByTo(HashMap()) { it.host }
+
+    /**
+     * @return the new state of [host], to be stored
+     */
+    @Synchronized
+    fun recordFailure(host: String, retryAfter: Long): HostFailure {
+        val previous = failures[host]
+        val count = (previous?.failureCount ?: 0) + 1
+
+        val failure = HostFailure(host, count,
+                if (count >= failureThreshold) maxOf(previous?.retryAfter ?: 0, retryAfter) else 0)
+        failures[host] = failure
+
+        return failure
+    }
+
+    /**
+     * @return true if [host] had failed, its stored state must then be removed
+     */
+    @Synchronized
+    fun recordSuccess(host: String): Boolean = failures.remove(host) != null
+
+    /**
+     * @return the time in milliseconds from which [host] can be queried again,
+     * or null if the circuit is closed
+     */
+    @Synchronized
+    fun getRetryAfter(host: String): Long? = failures[host]?.retryAfter?.takeIf { it > 0 }
+
+    companion object {
+        const val DEFAULT_FAILURE_THRESHOLD = 2
+    }
+}
@@ -0,0 +1,36 @@
+package com.readrops.api.localfeed
+
+import com.readrops.db.entities.Item
+
+/**
+ * Receives feed items one by one, as soon as they are parsed
+ */
+fun interface ItemSink {
+
+    fun accept(item: Item)
+}
+
+/**
+ * [ItemSink] which can let the parser know it doesn't need any more items.
+ * The parser then stops reading the document, leaving the rest of it unread and undownloaded.
+ */
+interface StoppableItemSink : ItemSink {
+
+    val isSatisfied: Boolean
+}
+
+/**
+ * Thrown by feed adapters to leave the document once their [StoppableItemSink] is satisfied
+ */
+internal class StopParsingException : Exception()
+
+internal fun ItemSink.acceptOrStop(item: Item) {
+    accept(item)
+
+    if (isSatisfied()) throw StopParsingException()
+}
+
+internal fun ItemSink.isSatisfied() = this is StoppableItemSink && isSatisfied
+
+internal fun Throwable.isParsingStop(): Boolean =
+        generateSequence(this) { it.cause }.any { it is StopParsingException }
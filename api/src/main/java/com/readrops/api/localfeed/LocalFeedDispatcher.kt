@@ -0,0 +1,125 @@
+package com.readrops.api.localfeed
+
+import androidx.annotation.WorkerThread
+import com.readrops.db.entities.Feed
+import okhttp3.HttpUrl.Companion.toHttpUrlOrNull
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+/**
+ * Runs a block for each feed concurrently, with at most [maxRequests] feeds being processed at
+ * the same time and at most [maxRequestsPerHost] feeds of the same host.
+ * Limits are named after OkHttp's Dispatcher ones as they serve the same purpose for blocking calls.
+ */
+class LocalFeedDispatcher(
+        private val maxRequests: Int = DEFAULT_MAX_REQUESTS,
+        private val maxRequestsPerHost: Int = DEFAULT_MAX_REQUESTS_PER_HOST,
+) {
+
+    init {
+        require(maxRequests > 0) { "maxRequests must be greater than 0" }
+        require(maxRequestsPerHost > 0) { "maxRequestsPerHost must be greater than 0" }
+    }
+
+    /**
+     * Process all [feeds] with [block] and return once every feed has been processed.
+     * An exception thrown by [block] only affects the feed being processed.
+     */
+    @WorkerThread
+    @Throws(InterruptedException::class)
+    fun dispatch(feeds: List<Feed>, block: (Feed) -> Unit) {
+        if (feeds.isEmpty()) return
+
+        val queue = HostQueue(feeds, maxRequestsPerHost)
+        val executor = Executors.newFixedThreadPool(minOf(maxRequests, feeds.size))
+
+        repeat(minOf(maxRequests, feeds.size)) {
+            executor.execute {
+                while (true) {
+                    val feed = queue.take() ?: break
+
+                    try {
+                        block(feed)
+                    } catch (e: Exception) {
+                        // errors are the block's responsibility, this only keeps the worker alive
+                    } finally {
+                        queue.release(feed)
+                    }
+                }
+            }
+        }
+
+        executor.shutdown()
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // waiting for all feeds to be processed
+            }
+        } catch (e: InterruptedException) {
+            // the sync was cancelled, pending feeds won't be processed
+            queue.clear()
+            executor.shutdownNow()
+            throw e
+        }
+    }
+
+    /**
+     * Feeds waiting to be processed, grouped by host so a worker only takes a feed
+     * whose host has not reached the per host limit.
+     */
+    private class HostQueue(feeds: List<Feed>, private val maxPerHost: Int) {
+
+        private val lock = ReentrantLock()
+        private val hostAvailable = lock.newCondition()
+
+        private val pending = LinkedHashMap<String, ArrayDeque<Feed>>()
+        private val running = HashMap<String, Int>()
+
+        init {
+            feeds.forEach { pending.getOrPut(hostOf(it)) { ArrayDeque() }.addLast(it) }
+        }
+
+        /**
+         * @return the next feed to process or null if there is nothing left
+         */
+        fun take(): Feed? = lock.withLock {
+            var host = nextAvailableHost()
+            while (host == null && pending.isNotEmpty()) {
+                hostAvailable.await()
+                host = nextAvailableHost()
+            }
+
+            host?.let {
+                val hostFeeds = pending[it]!!
+                val feed = hostFeeds.removeFirst()
+                if (hostFeeds.isEmpty()) pending.remove(it)
+
+                running[it] = (running[it] ?: 0) + 1
+                feed
+            }
+        }
+
+        private fun nextAvailableHost(): String? =
+                pending.keys.firstOrNull { (running[it] ?: 0) < maxPerHost }
+
+        fun release(feed: Feed) = lock.withLock {
+            val host = hostOf(feed)
+            running[host] = (running[host] ?: 1) - 1
+
+            hostAvailable.signalAll()
+        }
+
+        fun clear() = lock.withLock {
+            pending.clear()
+            hostAvailable.signalAll()
+        }
+    }
+
+    companion object {
+        const val DEFAULT_MAX_REQUESTS = 8
+        const val DEFAULT_MAX_REQUESTS_PER_HOST = 2
+
+        fun hostOf(feed: Feed): String = feed.url?.toHttpUrlOrNull()?.host ?: feed.url.orEmpty()
+    }
+}
@@ -2,7 +2,6 @@ package com.readrops.api.localfeed
 
 import android.accounts.NetworkErrorException
 import androidx.annotation.WorkerThread
-import com.gitlab.mvysny.konsumexml.Konsumer
 import com.gitlab.mvysny.konsumexml.konsumeXml
 import com.readrops.api.localfeed.json.JSONFeedAdapter
 import com.readrops.api.utils.ApiUtils
@@ -11,20 +10,33 @@ import com.readrops.api.utils.exceptions.ParseException
 import com.readrops.api.utils.exceptions.UnknownFormatException
 import com.readrops.db.entities.Feed
 import com.readrops.db.entities.Item
-import com.squareup.moshi.Moshi
-import com.squareup.moshi.Types
+import com.squareup.moshi.JsonReader
+import okhttp3.CacheControl
 import okhttp3.Headers
 import okhttp3.OkHttpClient
 import okhttp3.Request
 import okhttp3.Response
-import okio.Buffer
+import okio.BufferedSource
 import org.koin.core.component.KoinComponent
 import org.koin.core.component.get
+import org.koin.core.component.inject
 import java.io.IOException
 import java.lang.Exception
 import java.net.HttpURLConnection
+import java.util.concurrent.TimeUnit
 
-class LocalRSSDataSource(private val httpClient: OkHttpClient) : KoinComponent {
+class LocalRSSDataSource(httpClient: OkHttpClient) : KoinComponent {
+
+    private val probeCache = ProbeCache()
+
+    private val jsonFeedAdapter: JSONFeedAdapter by inject()
+
+    // the shared client read timeout suits big remote syncs, a feed server that stops
+    // answering must not hold a sync for that long
+    private val httpClient = httpClient.newBuilder()
+            .connectTimeout(FEED_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+            .readTimeout(FEED_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+            .build()
 
     /**
      * Query RSS url
@@ -35,15 +47,42 @@ class LocalRSSDataSource(private val httpClient: OkHttpClient) : KoinComponent {
     @Throws(ParseException::class, UnknownFormatException::class, NetworkErrorException::class, IOException::class)
     @WorkerThread
     fun queryRSSResource(url: String, headers: Headers?): Pair<Feed, List<Item>>? {
+        val items = arrayListOf<Item>()
+        val feed = queryRSSResource(url, headers, { items += it }, null, 0)
+
+        return if (feed != null) Pair(feed, items) else null
+    }
+
+    /**
+     * Query RSS url and stream its items
+     * @param url url to query
+     * @param headers request headers
+     * @param sink receives each item as soon as it is parsed, a [StoppableItemSink] can end
+     * the download before the end of the document
+     * @param bodyDigest digest of the last response body, used when the server sends
+     * neither ETag nor Last-Modified header
+     * @param minRefreshInterval time in seconds during which a cached response is considered up to date,
+     * whatever its HTTP cache headers say, 0 to always query the server.
+     * Must be 0 for a feed never synced, the responses read when adding it are cached too.
+     * @param xmlParserEngine engine used if the resource is a RSS 1, RSS 2 or ATOM feed
+     * @return the parsed Feed object or null if the resource was not modified
+     */
+    @Throws(ParseException::class, UnknownFormatException::class, NetworkErrorException::class, IOException::class)
+    @WorkerThread
+    @JvmOverloads
+    fun queryRSSResource(url: String, headers: Headers?, sink: ItemSink, bodyDigest: String?,
+                         minRefreshInterval: Int, xmlParserEngine: XmlParserEngine = XmlParserEngine.DEFAULT): Feed? {
         get<AuthInterceptor>().credentials = null
-        val response = queryUrl(url, headers)
+        if (minRefreshInterval > 0 && isCacheFresh(url, minRefreshInterval)) return null
+
+        val response = (if (headers == null) probeCache.take(url) else null) ?: queryUrl(url, headers)
 
         return when {
             response.isSuccessful -> {
-                val pair = parseResponse(response, url)
+                val feed = parseResponse(response, url, sink, bodyDigest, xmlParserEngine)
 
                 response.body?.close()
-                pair
+                feed
             }
             response.code == HttpURLConnection.HTTP_NOT_MODIFIED -> null
             else -> throw NetworkErrorException("$url returned ${response.code} code : ${response.message}")
@@ -51,39 +90,50 @@ class LocalRSSDataSource(private val httpClient: OkHttpClient) : KoinComponent {
     }
 
     /**
-     * Checks if the provided url is a RSS resource
+     * Checks if the provided url is a RSS resource.
+     * The body of a RSS resource is kept for a short time so adding it right after doesn't download it again.
      * @param url url to check
      * @return true if [url] is a RSS resource, false otherwise
      */
     @WorkerThread
     fun isUrlRSSResource(url: String): Boolean {
-        val response = queryUrl(url, null)
+        return queryUrl(url, null).use { response ->
+            if (!response.isSuccessful) return false
 
-        return if (response.isSuccessful) {
             val header = response.header(ApiUtils.CONTENT_TYPE_HEADER)
                     ?: return false
 
             val contentType = ApiUtils.parseContentType(header)
                     ?: return false
 
+            val source = response.body!!.source()
             var type = LocalRSSHelper.getRSSType(contentType)
 
-            if (type == LocalRSSHelper.RSSType.UNKNOWN) {
-                val konsumer = response.body!!.byteStream().konsumeXml().apply {
-                    try {
-                        val rootKonsumer = nextElement(LocalRSSHelper.RSS_ROOT_NAMES)
-                        rootKonsumer?.let { type = LocalRSSHelper.guessRSSType(rootKonsumer) }
-                    } catch (e: Exception) {
-                        throw UnknownFormatException(e.message)
-                    }
-
-                }
+            if (type == LocalRSSHelper.RSSType.UNKNOWN) type = guessRSSType(source)
 
-                konsumer.close()
-            }
+            if (type != LocalRSSHelper.RSSType.UNKNOWN) {
+                probeCache.put(url, response, source.readByteString())
+                true
+            } else false
+        }
+    }
 
-            type != LocalRSSHelper.RSSType.UNKNOWN
-        } else false
+    /**
+     * A cached response was entirely read, but not necessarily by a sync: the probe and the addition
+     * of a feed read its body without handling its items
+     */
+    @Throws(IOException::class)
+    private fun isCacheFresh(url: String, maxStale: Int): Boolean {
+        val request = Request.Builder()
+                .url(url)
+                .cacheControl(CacheControl.Builder()
+                        .onlyIfCached()
+                        .maxStale(maxStale, TimeUnit.SECONDS)
+                        .build())
+                .build()
+
+        // an unsatisfiable only-if-cached request returns a 504 response
+        return httpClient.newCall(request).execute().use { it.isSuccessful }
     }
 
     @Throws(IOException::class)
@@ -94,7 +144,20 @@ class LocalRSSDataSource(private val httpClient: OkHttpClient) : KoinComponent {
         return httpClient.newCall(requestBuilder.build()).execute()
     }
 
-    private fun parseResponse(response: Response, url: String): Pair<Feed, List<Item>> {
+    private fun parseResponse(response: Response, url: String, sink: ItemSink, previousDigest: String?,
+                              xmlParserEngine: XmlParserEngine): Feed? {
+        val source = response.body!!.source()
+
+        // without any validator header, the whole body is buffered and hashed before being parsed
+        // so an unchanged feed is detected without parsing it again
+        val bodyDigest = if (response.header(ApiUtils.ETAG_HEADER) == null &&
+                response.header(ApiUtils.LAST_MODIFIED_HEADER) == null) {
+            source.request(Long.MAX_VALUE)
+            source.buffer.sha256().hex()
+        } else null
+
+        if (bodyDigest != null && bodyDigest == previousDigest) return null
+
         val header = response.header(ApiUtils.CONTENT_TYPE_HEADER)
                 ?: throw UnknownFormatException("Unable to get $url content-type")
 
@@ -103,60 +166,47 @@ class LocalRSSDataSource(private val httpClient: OkHttpClient) : KoinComponent {
 
         var type = LocalRSSHelper.getRSSType(contentType)
 
-        var konsumer: Konsumer? = null
-        if (type != LocalRSSHelper.RSSType.JSONFEED)
-            konsumer = response.body!!.byteStream().konsumeXml()
-
-        var rootKonsumer: Konsumer? = null
         // if we can't guess type based on content-type header, we use the content
-        if (type == LocalRSSHelper.RSSType.UNKNOWN) {
-            try {
-                konsumer = response.body!!.byteStream().konsumeXml()
-                rootKonsumer = konsumer.nextElement(LocalRSSHelper.RSS_ROOT_NAMES)
-
-                if (rootKonsumer != null) {
-                    type = LocalRSSHelper.guessRSSType(rootKonsumer)
-                }
-            } catch (e: Exception) {
-                throw UnknownFormatException(e.message)
-            }
-
-        }
+        if (type == LocalRSSHelper.RSSType.UNKNOWN) type = guessRSSType(source)
 
         // if we can't guess type even with the content, we are unable to go further
         if (type == LocalRSSHelper.RSSType.UNKNOWN) throw UnknownFormatException("Unable to guess $url RSS type")
 
-        val pair = parseFeed(rootKonsumer ?: konsumer, type, response)
-
-        rootKonsumer?.finish()
-        konsumer?.close()
-
-        return pair
+        return parseFeed(source, type, response, sink, xmlParserEngine).apply { this.bodyDigest = bodyDigest }
     }
 
-    private fun parseFeed(konsumer: Konsumer?, type: LocalRSSHelper.RSSType, response: Response): Pair<Feed, List<Item>> {
-        val pair = if (type != LocalRSSHelper.RSSType.JSONFEED) {
-            val adapter = XmlAdapter.xmlFeedAdapterFactory(type)
+    /**
+     * Guess the RSS type from the document root element, without consuming [source]
+     */
+    private fun guessRSSType(source: BufferedSource): LocalRSSHelper.RSSType {
+        val konsumer = source.peek().inputStream().konsumeXml()
+
+        return try {
+            konsumer.nextElement(LocalRSSHelper.RSS_ROOT_NAMES)
+                    ?.let { LocalRSSHelper.guessRSSType(it) }
+                    ?: LocalRSSHelper.RSSType.UNKNOWN
+        } catch (e: Exception) {
+            throw UnknownFormatException(e.message)
+        } finally {
+            konsumer.close()
+        }
+    }
 
-            adapter.fromXml(konsumer!!)
+    private fun parseFeed(source: BufferedSource, type: LocalRSSHelper.RSSType, response: Response,
+                          sink: ItemSink, xmlParserEngine: XmlParserEngine): Feed {
+        val feed = if (type != LocalRSSHelper.RSSType.JSONFEED) {
+            xmlParserEngine.parseFeed(source.inputStream(), type, sink)
         } else {
-            val pairType = Types.newParameterizedType(Pair::class.java, Feed::class.java,
-                    Types.newParameterizedType(List::class.java, Item::class.java))
-
-            val adapter = Moshi.Builder()
-                    .add(pairType, JSONFeedAdapter())
-                    .build()
-                    .adapter<Pair<Feed, List<Item>>>(pairType)
-
-            adapter.fromJson(Buffer().readFrom(response.body!!.byteStream()))!!
+            // read straight from the response source, without copying the body
+            jsonFeedAdapter.fromJson(JsonReader.of(source), sink)
         }
 
-        handleSpecialCases(pair.first, type, response)
+        handleSpecialCases(feed, type, response)
 
-        pair.first.etag = response.header(ApiUtils.ETAG_HEADER)
-        pair.first.lastModified = response.header(ApiUtils.LAST_MODIFIED_HEADER)
+        feed.etag = response.header(ApiUtils.ETAG_HEADER)
+        feed.lastModified = response.header(ApiUtils.LAST_MODIFIED_HEADER)
 
-        return pair
+        return feed
     }
 
     private fun handleSpecialCases(feed: Feed, type: LocalRSSHelper.RSSType, response: Response) =
@@ -170,4 +220,8 @@ class LocalRSSDataSource(private val httpClient: OkHttpClient) : KoinComponent {
                     if (siteUrl == null) siteUrl = response.request.url.scheme + "://" + response.request.url.host
                 }
             }
-}
\ No newline at end of file
+
+    companion object {
+        private const val FEED_TIMEOUT_SECONDS = 20L
+    }
+}
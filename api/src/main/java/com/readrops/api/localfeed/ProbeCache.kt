@@ -0,0 +1,48 @@
+package com.readrops.api.localfeed
+
+import okhttp3.Response
+import okhttp3.ResponseBody.Companion.toResponseBody
+import okio.ByteString
+import java.util.concurrent.TimeUnit
+
+/**
+ * Keeps the last probed feed responses for a short time, so a feed checked with
+ * [LocalRSSDataSource.isUrlRSSResource] can be added without being downloaded again.
+ */
+internal class ProbeCache(
+        private val maxEntries: Int = MAX_ENTRIES,
+        private val maxAge: Long = MAX_AGE,
+        private val clock: () -> Long = System::currentTimeMillis,
+) {
+
+    private class Entry(val response: Response, val body: ByteString, val time: Long)
+
+    private val entries = LinkedHashMap<String, Entry>()
+
+    @Synchronized
+    fun put(url: String, response: Response, body: ByteString) {
+        entries.remove(url)
+        entries[url] = Entry(response.newBuilder().body(null).build(), body, clock())
+
+        while (entries.size > maxEntries) entries.remove(entries.keys.first())
+    }
+
+    /**
+     * @return a copy of the probed response if it is recent enough, it can only be taken once
+     */
+    @Synchronized
+    fun take(url: String): Response? {
+        val entry = entries.remove(url) ?: return null
+        if (clock() - entry.time > maxAge) return null
+
+        return entry.response.newBuilder()
+                .body(entry.body.toResponseBody())
+                .build()
+    }
+
+    companion object {
+        const val MAX_ENTRIES = 4
+
+        val MAX_AGE = TimeUnit.MINUTES.toMillis(5)
+    }
+}
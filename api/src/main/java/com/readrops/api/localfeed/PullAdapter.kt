@@ -0,0 +1,50 @@
+package com.readrops.api.localfeed
+
+import com.readrops.api.localfeed.atom.ATOMPullFeedAdapter
+import com.readrops.api.localfeed.rss1.RSS1PullFeedAdapter
+import com.readrops.api.localfeed.rss2.RSS2PullFeedAdapter
+import com.readrops.db.entities.Feed
+import com.readrops.db.entities.Item
+import org.xmlpull.v1.XmlPullParser
+
+/**
+ * Same as [XmlAdapter], reading the document directly with a [XmlPullParser]
+ * instead of going through konsume-xml
+ */
+interface PullAdapter<T> {
+
+    /**
+     * @param parser parser positioned on the element start tag, left on its end tag
+     */
+    fun fromXml(parser: XmlPullParser): T
+
+    companion object {
+        fun pullFeedAdapterFactory(type: LocalRSSHelper.RSSType): PullFeedAdapter = when (type) {
+            LocalRSSHelper.RSSType.RSS_1 -> RSS1PullFeedAdapter()
+            LocalRSSHelper.RSSType.RSS_2 -> RSS2PullFeedAdapter()
+            LocalRSSHelper.RSSType.ATOM -> ATOMPullFeedAdapter()
+            else -> throw IllegalArgumentException("Unknown RSS type : $type")
+        }
+    }
+}
+
+/**
+ * Same as [XmlFeedAdapter], reading the document directly with a [XmlPullParser]
+ */
+interface PullFeedAdapter : PullAdapter<Pair<Feed, List<Item>>> {
+
+    /**
+     * Parse the feed and pass its items to [sink] while parsing.
+     * Items given to [sink] before a parsing error are not taken back.
+     * @param parser parser at the beginning of the document
+     * @return the parsed feed, complete only once the whole document has been read
+     */
+    fun fromXml(parser: XmlPullParser, sink: ItemSink): Feed
+
+    override fun fromXml(parser: XmlPullParser): Pair<Feed, List<Item>> {
+        val items = arrayListOf<Item>()
+        val feed = fromXml(parser) { items += it }
+
+        return Pair(feed, items)
+    }
+}
@@ -12,7 +12,7 @@ interface XmlAdapter<T> {
     fun fromXml(konsumer: Konsumer): T
 
     companion object {
-        fun xmlFeedAdapterFactory(type: LocalRSSHelper.RSSType): XmlAdapter<Pair<Feed, List<Item>>> = when (type) {
+        fun xmlFeedAdapterFactory(type: LocalRSSHelper.RSSType): XmlFeedAdapter = when (type) {
             LocalRSSHelper.RSSType.RSS_1 -> RSS1FeedAdapter()
             LocalRSSHelper.RSSType.RSS_2 -> RSS2FeedAdapter()
             LocalRSSHelper.RSSType.ATOM -> ATOMFeedAdapter()
@@ -23,3 +23,23 @@ interface XmlAdapter<T> {
     }
 }
 
+/**
+ * Feed adapter which can hand each item to an [ItemSink] as soon as it is parsed,
+ * instead of keeping all of them in memory
+ */
+interface XmlFeedAdapter : XmlAdapter<Pair<Feed, List<Item>>> {
+
+    /**
+     * Parse the feed and pass its items to [sink] while parsing.
+     * Items given to [sink] before a parsing error are not taken back.
+     * @return the parsed feed, complete only once the whole document has been read
+     */
+    fun fromXml(konsumer: Konsumer, sink: ItemSink): Feed
+
+    override fun fromXml(konsumer: Konsumer): Pair<Feed, List<Item>> {
+        val items = arrayListOf<Item>()
+        val feed = fromXml(konsumer) { items += it }
+
+        return Pair(feed, items)
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.readrops.api.localfeed
+
+import com.gitlab.mvysny.konsumexml.konsumeXml
+import com.readrops.db.entities.Feed
+import org.xmlpull.v1.XmlPullParser
+import org.xmlpull.v1.XmlPullParserFactory
+import java.io.InputStream
+
+/**
+ * Engines parsing RSS 1, RSS 2 and ATOM documents, both giving the same results
+ */
+enum class XmlParserEngine {
+
+    /**
+     * [XmlFeedAdapter] implementations, built on konsume-xml
+     */
+    KONSUME_XML {
+        override fun parseFeed(stream: InputStream, type: LocalRSSHelper.RSSType, sink: ItemSink): Feed =
+                XmlAdapter.xmlFeedAdapterFactory(type).fromXml(stream.konsumeXml(), sink)
+    },
+
+    /**
+     * [PullFeedAdapter] implementations, reading the platform pull parser events directly
+     */
+    PULL_PARSER {
+        override fun parseFeed(stream: InputStream, type: LocalRSSHelper.RSSType, sink: ItemSink): Feed =
+                stream.use { PullAdapter.pullFeedAdapterFactory(type).fromXml(newPullParser(it), sink) }
+    };
+
+    /**
+     * Parse the feed and pass its items to [sink] while parsing.
+     * [stream] is closed once the document is parsed or once [sink] is satisfied.
+     */
+    abstract fun parseFeed(stream: InputStream, type: LocalRSSHelper.RSSType, sink: ItemSink): Feed
+
+    companion object {
+        /**
+         * Engine used when none is chosen
+         */
+        @JvmField
+        val DEFAULT = KONSUME_XML
+
+        private val pullParserFactory by lazy { XmlPullParserFactory.newInstance() }
+
+        /**
+         * Element and attribute names are kept as written in the document, prefix included,
+         * like konsume-xml tag names
+         */
+        fun newPullParser(stream: InputStream): XmlPullParser = pullParserFactory.newPullParser().apply {
+            setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, false)
+            setInput(stream, null)
+        }
+    }
+}
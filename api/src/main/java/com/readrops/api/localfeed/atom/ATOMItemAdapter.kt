@@ -6,6 +6,7 @@ import com.gitlab.mvysny.konsumexml.allChildrenAutoIgnore
 import com.readrops.api.localfeed.XmlAdapter
 import com.readrops.api.utils.*
 import com.readrops.api.utils.exceptions.ParseException
+import com.readrops.api.utils.extensions.computeTextMetrics
 import com.readrops.api.utils.extensions.nonNullText
 import com.readrops.api.utils.extensions.nullableText
 import com.readrops.api.utils.extensions.nullableTextRecursively
@@ -33,10 +34,7 @@ class ATOMItemAdapter : XmlAdapter<Item> {
                 }
             }
 
-            validateItem(item)
-            if (item.pubDate == null) item.pubDate = LocalDateTime.now()
-            if (item.guid == null) item.guid = item.link
-
+            finalizeItem(item)
             item
         } catch (e: Exception) {
             throw ParseException(e.message)
@@ -49,14 +47,21 @@ class ATOMItemAdapter : XmlAdapter<Item> {
             item.link = attributes.getValueOrNull("href")
     }
 
-    private fun validateItem(item: Item) {
-        when {
-            item.title == null -> throw ParseException("Item title is required")
-            item.link == null -> throw ParseException("Item link is required")
-        }
-    }
-
     companion object {
         val names = Names.of("title", "id", "updated", "link", "author", "summary", "content")
+
+        internal fun finalizeItem(item: Item) {
+            validateItem(item)
+            if (item.pubDate == null) item.pubDate = LocalDateTime.now()
+            if (item.guid == null) item.guid = item.link
+            item.computeTextMetrics()
+        }
+
+        private fun validateItem(item: Item) {
+            when {
+                item.title == null -> throw ParseException("Item title is required")
+                item.link == null -> throw ParseException("Item link is required")
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.readrops.api.localfeed.atom
+
+import com.readrops.api.localfeed.ItemSink
+import com.readrops.api.localfeed.LocalRSSHelper
+import com.readrops.api.localfeed.PullFeedAdapter
+import com.readrops.api.localfeed.acceptOrStop
+import com.readrops.api.localfeed.isParsingStop
+import com.readrops.api.utils.exceptions.ParseException
+import com.readrops.api.utils.extensions.attribute
+import com.readrops.api.utils.extensions.forEachChild
+import com.readrops.api.utils.extensions.nonNullText
+import com.readrops.api.utils.extensions.nullableText
+import com.readrops.api.utils.extensions.requireRoot
+import com.readrops.db.entities.Feed
+import org.xmlpull.v1.XmlPullParser
+
+class ATOMPullFeedAdapter : PullFeedAdapter {
+
+    override fun fromXml(parser: XmlPullParser, sink: ItemSink): Feed {
+        val feed = Feed()
+
+        val itemAdapter = ATOMPullItemAdapter()
+
+        return try {
+            parser.requireRoot(LocalRSSHelper.ATOM_ROOT_NAME)
+            parser.forEachChild { tagName ->
+                with(feed) {
+                    when (tagName) {
+                        "title" -> name = parser.nonNullText()
+                        "link" -> parseLink(parser, feed)
+                        "subtitle" -> description = parser.nullableText()
+                        "entry" -> sink.acceptOrStop(itemAdapter.fromXml(parser))
+                    }
+                }
+            }
+
+            feed
+        } catch (e: Exception) {
+            if (e.isParsingStop()) feed else throw ParseException(e.message)
+        }
+    }
+
+    private fun parseLink(parser: XmlPullParser, feed: Feed) {
+        val rel = parser.attribute("rel")
+
+        if (rel == "self")
+            feed.url = requireHref(parser)
+        else if (rel == "alternate")
+            feed.siteUrl = requireHref(parser)
+    }
+
+    private fun requireHref(parser: XmlPullParser) =
+            parser.attribute("href") ?: throw ParseException("link href attribute is required")
+}
@@ -0,0 +1,42 @@
+package com.readrops.api.localfeed.atom
+
+import com.readrops.api.localfeed.PullAdapter
+import com.readrops.api.utils.DateUtils
+import com.readrops.api.utils.extensions.attribute
+import com.readrops.api.utils.extensions.forEachChild
+import com.readrops.api.utils.extensions.nonNullText
+import com.readrops.api.utils.extensions.nullableText
+import com.readrops.api.utils.extensions.nullableTextRecursively
+import com.readrops.db.entities.Item
+import org.xmlpull.v1.XmlPullParser
+
+class ATOMPullItemAdapter : PullAdapter<Item> {
+
+    override fun fromXml(parser: XmlPullParser): Item {
+        val item = Item()
+
+        parser.forEachChild { tagName ->
+            with(item) {
+                when (tagName) {
+                    "title" -> title = parser.nonNullText()
+                    "id" -> guid = parser.nullableText()
+                    "updated" -> pubDate = DateUtils.parse(parser.nullableText())
+                    "link" -> parseLink(parser, item)
+                    "author" -> parser.forEachChild { if (it == "name") author = parser.nullableText() }
+                    "summary" -> description = parser.nullableTextRecursively()
+                    "content" -> content = parser.nullableTextRecursively()
+                }
+            }
+        }
+
+        ATOMItemAdapter.finalizeItem(item)
+        return item
+    }
+
+    private fun parseLink(parser: XmlPullParser, item: Item) {
+        val rel = parser.attribute("rel")
+
+        if (rel == null || rel == "alternate")
+            item.link = parser.attribute("href")
+    }
+}
@@ -1,5 +1,7 @@
 package com.readrops.api.localfeed.json
 
+import com.readrops.api.localfeed.ItemSink
+import com.readrops.api.localfeed.StopParsingException
 import com.readrops.api.utils.exceptions.ParseException
 import com.readrops.api.utils.extensions.nextNonEmptyString
 import com.readrops.api.utils.extensions.nextNullableString
@@ -7,37 +9,54 @@ import com.readrops.db.entities.Feed
 import com.readrops.db.entities.Item
 import com.squareup.moshi.*
 
+/**
+ * Stateless, a single instance can be shared between concurrent refreshes
+ */
 class JSONFeedAdapter : JsonAdapter<Pair<Feed, List<Item>>>() {
 
+    private val itemAdapter = JSONItemsAdapter()
+
     override fun toJson(writer: JsonWriter, value: Pair<Feed, List<Item>>?) {
         TODO("Not yet implemented")
     }
 
-    override fun fromJson(reader: JsonReader): Pair<Feed, List<Item>> = try {
-        val feed = Feed()
+    override fun fromJson(reader: JsonReader): Pair<Feed, List<Item>> {
         val items = arrayListOf<Item>()
+        val feed = fromJson(reader) { items += it }
 
-        val itemAdapter = JSONItemsAdapter()
+        return Pair(feed, items)
+    }
 
-        reader.beginObject()
+    /**
+     * Parse the feed and pass its items to [sink] while parsing
+     * @return the parsed feed, complete only once the whole document has been read
+     */
+    fun fromJson(reader: JsonReader, sink: ItemSink): Feed {
+        val feed = Feed()
 
-        while (reader.hasNext()) {
-            with(feed) {
-                when (reader.selectName(names)) {
-                    0 -> name = reader.nextNonEmptyString()
-                    1 -> siteUrl = reader.nextNullableString()
-                    2 -> url = reader.nextNullableString()
-                    3 -> description = reader.nextNullableString()
-                    4 -> items += itemAdapter.fromJson(reader)
-                    else -> reader.skipValue()
+        return try {
+            reader.beginObject()
+
+            while (reader.hasNext()) {
+                with(feed) {
+                    when (reader.selectName(names)) {
+                        0 -> name = reader.nextNonEmptyString()
+                        1 -> siteUrl = reader.nextNullableString()
+                        2 -> url = reader.nextNullableString()
+                        3 -> description = reader.nextNullableString()
+                        4 -> itemAdapter.fromJson(reader, sink)
+                        else -> reader.skipValue()
+                    }
                 }
             }
-        }
 
-        reader.endObject()
-        Pair(feed, items)
-    } catch (e: Exception) {
-        throw ParseException(e.message)
+            reader.endObject()
+            feed
+        } catch (e: StopParsingException) {
+            feed
+        } catch (e: Exception) {
+            throw ParseException(e.message)
+        }
     }
 
     companion object {
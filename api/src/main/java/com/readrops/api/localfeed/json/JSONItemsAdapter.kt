@@ -1,8 +1,12 @@
 package com.readrops.api.localfeed.json
 
+import com.readrops.api.localfeed.ItemSink
+import com.readrops.api.localfeed.StopParsingException
+import com.readrops.api.localfeed.acceptOrStop
 import com.readrops.api.localfeed.XmlAdapter.Companion.AUTHORS_MAX
 import com.readrops.api.utils.DateUtils
 import com.readrops.api.utils.exceptions.ParseException
+import com.readrops.api.utils.extensions.computeTextMetrics
 import com.readrops.api.utils.extensions.nextNonEmptyString
 import com.readrops.api.utils.extensions.nextNullableString
 import com.readrops.db.entities.Item
@@ -17,9 +21,17 @@ class JSONItemsAdapter : JsonAdapter<List<Item>>() {
         // not useful
     }
 
-    override fun fromJson(reader: JsonReader): List<Item> = with(reader) {
+    override fun fromJson(reader: JsonReader): List<Item> {
         val items = arrayListOf<Item>()
+        fromJson(reader) { items += it }
 
+        return items
+    }
+
+    /**
+     * Parse the items array and pass each item to [sink] as soon as it is parsed
+     */
+    fun fromJson(reader: JsonReader, sink: ItemSink): Unit = with(reader) {
         try {
             beginArray()
 
@@ -51,13 +63,15 @@ class JSONItemsAdapter : JsonAdapter<List<Item>>() {
                 validateItem(item)
                 item.content = if (contentHtml != null) contentHtml else contentText
                 if (item.pubDate == null) item.pubDate = LocalDateTime.now()
+                item.computeTextMetrics()
 
                 endObject()
-                items += item
+                sink.acceptOrStop(item)
             }
 
             endArray()
-            items
+        } catch (e: StopParsingException) {
+            throw e
         } catch (e: Exception) {
             throw ParseException(e.message)
         }
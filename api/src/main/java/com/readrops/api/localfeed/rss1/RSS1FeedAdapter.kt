@@ -4,20 +4,21 @@ import com.gitlab.mvysny.konsumexml.Konsumer
 import com.gitlab.mvysny.konsumexml.Names
 import com.gitlab.mvysny.konsumexml.allChildrenAutoIgnore
 import com.readrops.api.localfeed.LocalRSSHelper
-import com.readrops.api.localfeed.XmlAdapter
+import com.readrops.api.localfeed.ItemSink
+import com.readrops.api.localfeed.XmlFeedAdapter
+import com.readrops.api.localfeed.acceptOrStop
+import com.readrops.api.localfeed.isParsingStop
 import com.readrops.api.utils.exceptions.ParseException
 import com.readrops.api.utils.extensions.checkElement
 import com.readrops.api.utils.extensions.nonNullText
 import com.readrops.api.utils.extensions.nullableText
 import com.readrops.db.entities.Feed
-import com.readrops.db.entities.Item
 
-class RSS1FeedAdapter : XmlAdapter<Pair<Feed, List<Item>>> {
+class RSS1FeedAdapter : XmlFeedAdapter {
 
-    override fun fromXml(konsumer: Konsumer): Pair<Feed, List<Item>> {
+    override fun fromXml(konsumer: Konsumer, sink: ItemSink): Feed {
         val feed = Feed()
 
-        val items = arrayListOf<Item>()
         val itemAdapter = RSS1ItemAdapter()
 
         return try {
@@ -25,15 +26,18 @@ class RSS1FeedAdapter : XmlAdapter<Pair<Feed, List<Item>>> {
                 it.allChildrenAutoIgnore(Names.of("channel", "item")) {
                     when (tagName) {
                         "channel" -> parseChannel(this, feed)
-                        "item" -> items += itemAdapter.fromXml(this)
+                        "item" -> sink.acceptOrStop(itemAdapter.fromXml(this))
                     }
                 }
             }
 
             konsumer.close()
-            Pair(feed, items)
+            feed
         } catch (e: Exception) {
-            throw ParseException(e.message)
+            if (e.isParsingStop()) {
+                konsumer.close()
+                feed
+            } else throw ParseException(e.message)
         }
 
     }
@@ -7,6 +7,7 @@ import com.readrops.api.localfeed.XmlAdapter
 import com.readrops.api.localfeed.XmlAdapter.Companion.AUTHORS_MAX
 import com.readrops.api.utils.*
 import com.readrops.api.utils.exceptions.ParseException
+import com.readrops.api.utils.extensions.computeTextMetrics
 import com.readrops.api.utils.extensions.nonNullText
 import com.readrops.api.utils.extensions.nullableText
 import com.readrops.api.utils.extensions.nullableTextRecursively
@@ -37,6 +38,17 @@ class RSS1ItemAdapter : XmlAdapter<Item> {
                 }
             }
 
+            finalizeItem(item, about, authors)
+            item
+        } catch (e: Exception) {
+            throw ParseException(e.message)
+        }
+    }
+
+    companion object {
+        val names = Names.of("title", "description", "date", "link", "creator", "encoded")
+
+        internal fun finalizeItem(item: Item, about: String?, authors: List<String?>) {
             if (item.pubDate == null) item.pubDate = LocalDateTime.now()
             if (item.link == null) item.link = about
                     ?: throw ParseException("RSS1 link or about element is required")
@@ -46,17 +58,11 @@ class RSS1ItemAdapter : XmlAdapter<Item> {
                     .joinToString(limit = AUTHORS_MAX)
 
             validateItem(item)
-            item
-        } catch (e: Exception) {
-            throw ParseException(e.message)
+            item.computeTextMetrics()
         }
-    }
 
-    private fun validateItem(item: Item) {
-        if (item.title == null) throw ParseException("Item title is required")
-    }
-
-    companion object {
-        val names = Names.of("title", "description", "date", "link", "creator", "encoded")
+        private fun validateItem(item: Item) {
+            if (item.title == null) throw ParseException("Item title is required")
+        }
     }
 }
\ No newline at end of file
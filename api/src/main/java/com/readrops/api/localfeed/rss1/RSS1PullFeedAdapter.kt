@@ -0,0 +1,57 @@
+package com.readrops.api.localfeed.rss1
+
+import com.readrops.api.localfeed.ItemSink
+import com.readrops.api.localfeed.LocalRSSHelper
+import com.readrops.api.localfeed.PullFeedAdapter
+import com.readrops.api.localfeed.acceptOrStop
+import com.readrops.api.localfeed.isParsingStop
+import com.readrops.api.utils.exceptions.ParseException
+import com.readrops.api.utils.extensions.attribute
+import com.readrops.api.utils.extensions.forEachChild
+import com.readrops.api.utils.extensions.nonNullText
+import com.readrops.api.utils.extensions.nullableText
+import com.readrops.api.utils.extensions.requireRoot
+import com.readrops.db.entities.Feed
+import org.xmlpull.v1.XmlPullParser
+
+class RSS1PullFeedAdapter : PullFeedAdapter {
+
+    override fun fromXml(parser: XmlPullParser, sink: ItemSink): Feed {
+        val feed = Feed()
+
+        val itemAdapter = RSS1PullItemAdapter()
+
+        return try {
+            parser.requireRoot(LocalRSSHelper.RSS_1_ROOT_NAME)
+            parser.forEachChild { tagName ->
+                when (tagName) {
+                    "channel" -> parseChannel(parser, feed)
+                    "item" -> sink.acceptOrStop(itemAdapter.fromXml(parser))
+                }
+            }
+
+            feed
+        } catch (e: Exception) {
+            if (e.isParsingStop()) feed else throw ParseException(e.message)
+        }
+    }
+
+    private fun parseChannel(parser: XmlPullParser, feed: Feed) {
+        feed.url = parser.attribute(ABOUT_ATTRIBUTE)
+
+        parser.forEachChild { tagName ->
+            with(feed) {
+                when (tagName) {
+                    "title" -> name = parser.nonNullText()
+                    "link" -> siteUrl = parser.nonNullText()
+                    "description" -> description = parser.nullableText()
+                }
+            }
+        }
+    }
+
+    companion object {
+        // namespaces are not processed, the usual rdf prefix is expected
+        const val ABOUT_ATTRIBUTE = "rdf:about"
+    }
+}
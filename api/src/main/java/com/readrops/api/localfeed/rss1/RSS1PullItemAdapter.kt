@@ -0,0 +1,36 @@
+package com.readrops.api.localfeed.rss1
+
+import com.readrops.api.localfeed.PullAdapter
+import com.readrops.api.utils.DateUtils
+import com.readrops.api.utils.extensions.attribute
+import com.readrops.api.utils.extensions.forEachChild
+import com.readrops.api.utils.extensions.nonNullText
+import com.readrops.api.utils.extensions.nullableText
+import com.readrops.api.utils.extensions.nullableTextRecursively
+import com.readrops.db.entities.Item
+import org.xmlpull.v1.XmlPullParser
+
+class RSS1PullItemAdapter : PullAdapter<Item> {
+
+    override fun fromXml(parser: XmlPullParser): Item {
+        val item = Item()
+        val authors = arrayListOf<String?>()
+        val about = parser.attribute(RSS1PullFeedAdapter.ABOUT_ATTRIBUTE)
+
+        parser.forEachChild { tagName ->
+            with(item) {
+                when (tagName) {
+                    "title" -> title = parser.nonNullText()
+                    "link" -> link = parser.nullableText()
+                    "dc:date" -> pubDate = DateUtils.parse(parser.nullableText())
+                    "dc:creator" -> authors += parser.nullableText()
+                    "description" -> description = parser.nullableTextRecursively()
+                    "content:encoded" -> content = parser.nullableTextRecursively()
+                }
+            }
+        }
+
+        RSS1ItemAdapter.finalizeItem(item, about, authors)
+        return item
+    }
+}
@@ -4,21 +4,22 @@ import com.gitlab.mvysny.konsumexml.Konsumer
 import com.gitlab.mvysny.konsumexml.Names
 import com.gitlab.mvysny.konsumexml.allChildrenAutoIgnore
 import com.readrops.api.localfeed.LocalRSSHelper
-import com.readrops.api.localfeed.XmlAdapter
+import com.readrops.api.localfeed.ItemSink
+import com.readrops.api.localfeed.XmlFeedAdapter
+import com.readrops.api.localfeed.acceptOrStop
+import com.readrops.api.localfeed.isParsingStop
+import com.readrops.api.utils.HtmlTextExtractor
 import com.readrops.api.utils.exceptions.ParseException
 import com.readrops.api.utils.extensions.checkElement
 import com.readrops.api.utils.extensions.nonNullText
 import com.readrops.api.utils.extensions.nullableText
 import com.readrops.db.entities.Feed
-import com.readrops.db.entities.Item
-import org.jsoup.Jsoup
 
-class RSS2FeedAdapter : XmlAdapter<Pair<Feed, List<Item>>> {
+class RSS2FeedAdapter : XmlFeedAdapter {
 
-    override fun fromXml(konsumer: Konsumer): Pair<Feed, List<Item>> {
+    override fun fromXml(konsumer: Konsumer, sink: ItemSink): Feed {
         val feed = Feed()
 
-        val items = arrayListOf<Item>()
         val itemAdapter = RSS2ItemAdapter()
 
         return try {
@@ -27,14 +28,14 @@ class RSS2FeedAdapter : XmlAdapter<Pair<Feed, List<Item>>> {
                     allChildrenAutoIgnore(names) {
                         with(feed) {
                             when (tagName) {
-                                "title" -> name = Jsoup.parse(nonNullText()).text()
+                                "title" -> name = HtmlTextExtractor.extract(nonNullText())
                                 "description" -> description = nullableText()
                                 "link" -> siteUrl = nullableText()
                                 "atom:link" -> {
                                     if (attributes.getValueOrNull("rel") == "self")
                                         url = attributes.getValueOrNull("href")
                                 }
-                                "item" -> items += itemAdapter.fromXml(this@allChildrenAutoIgnore)
+                                "item" -> sink.acceptOrStop(itemAdapter.fromXml(this@allChildrenAutoIgnore))
                                 else -> skipContents()
                             }
                         }
@@ -43,9 +44,12 @@ class RSS2FeedAdapter : XmlAdapter<Pair<Feed, List<Item>>> {
             }
 
             konsumer.close()
-            Pair(feed, items)
+            feed
         } catch (e: Exception) {
-            throw ParseException(e.message)
+            if (e.isParsingStop()) {
+                konsumer.close()
+                feed
+            } else throw ParseException(e.message)
         }
     }
 
@@ -5,6 +5,7 @@ import com.readrops.api.localfeed.XmlAdapter
 import com.readrops.api.localfeed.XmlAdapter.Companion.AUTHORS_MAX
 import com.readrops.api.utils.*
 import com.readrops.api.utils.exceptions.ParseException
+import com.readrops.api.utils.extensions.computeTextMetrics
 import com.readrops.api.utils.extensions.nonNullText
 import com.readrops.api.utils.extensions.nullableText
 import com.readrops.api.utils.extensions.nullableTextRecursively
@@ -77,24 +78,26 @@ class RSS2ItemAdapter : XmlAdapter<Item> {
         }
     }
 
-    private fun finalizeItem(item: Item, creators: List<String?>) = with(item) {
-        validateItem(this)
+    companion object {
+        val names = Names.of("title", "link", "author", "creator", "pubDate", "date",
+                "guid", "description", "encoded", "enclosure", "content", "group")
 
-        if (pubDate == null) pubDate = LocalDateTime.now()
-        if (guid == null) guid = link
-        if (author == null && creators.filterNotNull().isNotEmpty())
-            author = creators.filterNotNull().joinToString(limit = AUTHORS_MAX)
-    }
+        internal fun finalizeItem(item: Item, creators: List<String?>) = with(item) {
+            validateItem(this)
+
+            if (pubDate == null) pubDate = LocalDateTime.now()
+            if (guid == null) guid = link
+            if (author == null && creators.filterNotNull().isNotEmpty())
+                author = creators.filterNotNull().joinToString(limit = AUTHORS_MAX)
 
-    private fun validateItem(item: Item) {
-        when {
-            item.title == null -> throw ParseException("Item title is required")
-            item.link == null -> throw ParseException("Item link is required")
+            computeTextMetrics()
         }
-    }
 
-    companion object {
-        val names = Names.of("title", "link", "author", "creator", "pubDate", "date",
-                "guid", "description", "encoded", "enclosure", "content", "group")
+        private fun validateItem(item: Item) {
+            when {
+                item.title == null -> throw ParseException("Item title is required")
+                item.link == null -> throw ParseException("Item link is required")
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.readrops.api.localfeed.rss2
+
+import com.readrops.api.localfeed.ItemSink
+import com.readrops.api.localfeed.LocalRSSHelper
+import com.readrops.api.localfeed.PullFeedAdapter
+import com.readrops.api.localfeed.acceptOrStop
+import com.readrops.api.localfeed.isParsingStop
+import com.readrops.api.utils.HtmlTextExtractor
+import com.readrops.api.utils.exceptions.ParseException
+import com.readrops.api.utils.extensions.attribute
+import com.readrops.api.utils.extensions.forEachChild
+import com.readrops.api.utils.extensions.nonNullText
+import com.readrops.api.utils.extensions.nullableText
+import com.readrops.api.utils.extensions.requireRoot
+import com.readrops.db.entities.Feed
+import org.xmlpull.v1.XmlPullParser
+
+class RSS2PullFeedAdapter : PullFeedAdapter {
+
+    override fun fromXml(parser: XmlPullParser, sink: ItemSink): Feed {
+        val feed = Feed()
+
+        val itemAdapter = RSS2PullItemAdapter()
+
+        return try {
+            parser.requireRoot(LocalRSSHelper.RSS_2_ROOT_NAME)
+            parser.forEachChild { tagName ->
+                if (tagName == "channel") parseChannel(parser, feed, itemAdapter, sink)
+            }
+
+            feed
+        } catch (e: Exception) {
+            if (e.isParsingStop()) feed else throw ParseException(e.message)
+        }
+    }
+
+    private fun parseChannel(parser: XmlPullParser, feed: Feed, itemAdapter: RSS2PullItemAdapter, sink: ItemSink) =
+            parser.forEachChild { tagName ->
+                with(feed) {
+                    when (tagName) {
+                        "title" -> name = HtmlTextExtractor.extract(parser.nonNullText())
+                        "description" -> description = parser.nullableText()
+                        "link" -> siteUrl = parser.nullableText()
+                        "atom:link" -> {
+                            if (parser.attribute("rel") == "self")
+                                url = parser.attribute("href")
+                        }
+                        "item" -> sink.acceptOrStop(itemAdapter.fromXml(parser))
+                    }
+                }
+            }
+}
@@ -0,0 +1,62 @@
+package com.readrops.api.localfeed.rss2
+
+import com.readrops.api.localfeed.PullAdapter
+import com.readrops.api.utils.ApiUtils
+import com.readrops.api.utils.DateUtils
+import com.readrops.api.utils.extensions.attribute
+import com.readrops.api.utils.extensions.forEachChild
+import com.readrops.api.utils.extensions.nonNullText
+import com.readrops.api.utils.extensions.nullableText
+import com.readrops.api.utils.extensions.nullableTextRecursively
+import com.readrops.db.entities.Item
+import org.xmlpull.v1.XmlPullParser
+
+class RSS2PullItemAdapter : PullAdapter<Item> {
+
+    override fun fromXml(parser: XmlPullParser): Item {
+        val item = Item()
+        val creators = arrayListOf<String?>()
+
+        parser.forEachChild { tagName ->
+            with(item) {
+                when (tagName) {
+                    "title" -> title = ApiUtils.cleanText(parser.nonNullText())
+                    "link" -> link = parser.nonNullText()
+                    "author" -> author = parser.nullableText()
+                    "dc:creator" -> creators += parser.nullableText()
+                    "pubDate" -> pubDate = DateUtils.parse(parser.nullableText())
+                    "dc:date" -> pubDate = DateUtils.parse(parser.nullableText())
+                    "guid" -> guid = parser.nullableText()
+                    "description" -> description = parser.nullableTextRecursively()
+                    "content:encoded" -> content = parser.nullableTextRecursively()
+                    "enclosure" -> parseEnclosure(parser, item)
+                    "media:content" -> parseMediaContent(parser, item)
+                    "media:group" -> parseMediaGroup(parser, item)
+                }
+            }
+        }
+
+        RSS2ItemAdapter.finalizeItem(item, creators)
+        return item
+    }
+
+    private fun parseEnclosure(parser: XmlPullParser, item: Item) {
+        val type = parser.attribute("type")
+
+        if (type != null && ApiUtils.isMimeImage(type) && item.imageLink == null)
+            item.imageLink = parser.attribute("url")
+    }
+
+    private fun parseMediaContent(parser: XmlPullParser, item: Item) {
+        val medium = parser.attribute("medium")
+        val type = parser.attribute("type")
+
+        if (((medium != null && ApiUtils.isMimeImage(medium)) || (type != null && ApiUtils.isMimeImage(type)))
+                && item.imageLink == null)
+            item.imageLink = parser.attribute("url")
+    }
+
+    private fun parseMediaGroup(parser: XmlPullParser, item: Item) = parser.forEachChild { tagName ->
+        if (tagName == "media:content") parseMediaContent(parser, item)
+    }
+}
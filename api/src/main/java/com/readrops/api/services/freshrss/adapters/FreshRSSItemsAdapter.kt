@@ -4,6 +4,7 @@ import android.util.TimingLogger
 import com.readrops.api.services.freshrss.FreshRSSDataSource.GOOGLE_READ
 import com.readrops.api.services.freshrss.FreshRSSDataSource.GOOGLE_STARRED
 import com.readrops.api.utils.exceptions.ParseException
+import com.readrops.api.utils.extensions.computeTextMetrics
 import com.readrops.api.utils.extensions.nextNonEmptyString
 import com.readrops.api.utils.extensions.nextNullableString
 import com.readrops.db.entities.Item
@@ -60,6 +61,7 @@ class FreshRSSItemsAdapter : JsonAdapter<List<Item>>() {
                 }
             }
 
+            item.computeTextMetrics()
             items += item
             reader.endObject()
         }
@@ -4,6 +4,7 @@ import android.annotation.SuppressLint
 import com.readrops.db.entities.Item
 import com.readrops.api.utils.ApiUtils
 import com.readrops.api.utils.exceptions.ParseException
+import com.readrops.api.utils.extensions.computeTextMetrics
 import com.readrops.api.utils.extensions.nextNonEmptyString
 import com.readrops.api.utils.extensions.nextNullableString
 import com.squareup.moshi.JsonAdapter
@@ -58,6 +59,7 @@ class NextNewsItemsAdapter : JsonAdapter<List<Item>>() {
                 if (enclosureMime != null && ApiUtils.isMimeImage(enclosureMime!!))
                     item.imageLink = enclosureLink
 
+                item.computeTextMetrics()
                 items += item
                 reader.endObject()
             }
@@ -1,6 +1,5 @@
 package com.readrops.api.utils
 
-import org.jsoup.Jsoup
 import java.util.regex.Pattern
 
 object ApiUtils {
@@ -38,6 +37,6 @@ object ApiUtils {
      * @return cleaned text
      */
     fun cleanText(text: String?): String {
-        return Jsoup.parse(text).text().trim()
+        return HtmlTextExtractor.extract(text.orEmpty()).trim()
     }
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package com.readrops.api.utils
 
+import org.joda.time.IllegalFieldValueException
 import org.joda.time.LocalDateTime
 import org.joda.time.format.DateTimeFormat
+import org.joda.time.format.DateTimeFormatter
 import org.joda.time.format.DateTimeFormatterBuilder
 import java.util.*
 
@@ -30,27 +32,170 @@ object DateUtils {
      */
     private const val ATOM_JSON_DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss"
 
+    private val MONTHS = arrayOf("jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec")
+
+    private val DAYS = arrayOf("mon", "tue", "wed", "thu", "fri", "sat", "sun")
+
+    /**
+     * Formatter accepting every supported format, only used when [parseFast] doesn't handle a date.
+     * Joda formatters are immutable and thread safe so it is built once.
+     */
+    private val formatter = buildFormatter()
+
     @JvmStatic
     fun parse(value: String?): LocalDateTime? = if (value == null) {
         null
-    } else try {
-        val formatter = DateTimeFormatterBuilder()
-                .appendOptional(DateTimeFormat.forPattern("$RSS_2_BASE_PATTERN ").parser) // with timezone
-                .appendOptional(DateTimeFormat.forPattern(RSS_2_BASE_PATTERN).parser) // no timezone, important order here
-                .appendOptional(DateTimeFormat.forPattern(ATOM_JSON_DATE_FORMAT).parser)
-                .appendOptional(DateTimeFormat.forPattern(GMT_PATTERN).parser)
-                .appendOptional(DateTimeFormat.forPattern(OFFSET_PATTERN).parser)
-                .appendOptional(DateTimeFormat.forPattern(ISO_PATTERN).parser)
-                .appendOptional(DateTimeFormat.forPattern(EDT_PATTERN).parser)
-                .toFormatter()
-                .withLocale(Locale.ENGLISH)
-                .withOffsetParsed()
+    } else {
+        parseFast(value) ?: parseWithFormatter(value)
+    }
+
+    internal fun buildFormatter(): DateTimeFormatter = DateTimeFormatterBuilder()
+            .appendOptional(DateTimeFormat.forPattern("$RSS_2_BASE_PATTERN ").parser) // with timezone
+            .appendOptional(DateTimeFormat.forPattern(RSS_2_BASE_PATTERN).parser) // no timezone, important order here
+            .appendOptional(DateTimeFormat.forPattern(ATOM_JSON_DATE_FORMAT).parser)
+            .appendOptional(DateTimeFormat.forPattern(GMT_PATTERN).parser)
+            .appendOptional(DateTimeFormat.forPattern(OFFSET_PATTERN).parser)
+            .appendOptional(DateTimeFormat.forPattern(ISO_PATTERN).parser)
+            .appendOptional(DateTimeFormat.forPattern(EDT_PATTERN).parser)
+            .toFormatter()
+            .withLocale(Locale.ENGLISH)
+            .withOffsetParsed()
 
+    internal fun parseWithFormatter(value: String, formatter: DateTimeFormatter = this.formatter): LocalDateTime? = try {
         formatter.parseLocalDateTime(value)
     } catch (e: Exception) {
         null
     }
 
+    /**
+     * Parse the most common RFC 822 and ISO 8601 dates by reading their characters directly.
+     * As with the formatter, the date is returned as written, its time zone being ignored.
+     * Only a subset of what the formatter accepts is handled here, with the same result.
+     * @return the parsed date or null if the value must be parsed by the formatter
+     */
+    internal fun parseFast(value: String): LocalDateTime? = try {
+        if (value.length > 4 && value[4] == '-') parseIso(value) else parseRfc822(value)
+    } catch (e: IllegalFieldValueException) {
+        null
+    }
+
+    /**
+     * Format : 2020-06-30T11:39:37.206-07:00, fraction and time zone being optional
+     */
+    private fun parseIso(value: String): LocalDateTime? {
+        if (value.length < 19 || value[7] != '-' || value[10] != 'T' || value[13] != ':' || value[16] != ':') return null
+
+        val year = parseDigits(value, 0, 4)
+        val month = parseDigits(value, 5, 2)
+        val day = parseDigits(value, 8, 2)
+        val hour = parseDigits(value, 11, 2)
+        val minute = parseDigits(value, 14, 2)
+        val second = parseDigits(value, 17, 2)
+        if (year < 0 || month < 0 || day < 0 || hour < 0 || minute < 0 || second < 0) return null
+
+        var index = 19
+        var millis = 0
+        if (index < value.length && value[index] == '.') {
+            var digits = 0
+            index++
+
+            while (index < value.length && digits < 3 && isDigit(value[index])) {
+                millis = millis * 10 + (value[index] - '0')
+                digits++
+                index++
+            }
+
+            // the formatter only accepts a fraction followed by a time zone
+            if (digits == 0 || !isIsoZone(value, index, true)) return null
+            repeat(3 - digits) { millis *= 10 }
+        }
+
+        if (index < value.length && !isIsoZone(value, index, false)) return null
+
+        return LocalDateTime(year, month, day, hour, minute, second, millis)
+    }
+
+    /**
+     * Format : Fri, 04 Jan 2019 22:21:46 GMT, time zone being optional
+     */
+    private fun parseRfc822(value: String): LocalDateTime? {
+        if (value.length < 24 || value[3] != ',' || value[4] != ' ') return null
+
+        // day of month can be written with one digit
+        val shift = if (value[6] == ' ') -1 else 0
+        if (value.length < 25 + shift) return null
+
+        val dayOfWeek = indexOf(DAYS, value, 0) + 1
+        val day = parseDigits(value, 5, 2 + shift)
+
+        if (value[7 + shift] != ' ' || value[11 + shift] != ' ' || value[16 + shift] != ' ' ||
+                value[19 + shift] != ':' || value[22 + shift] != ':') return null
+
+        val month = indexOf(MONTHS, value, 8 + shift) + 1
+        val year = parseDigits(value, 12 + shift, 4)
+        val hour = parseDigits(value, 17 + shift, 2)
+        val minute = parseDigits(value, 20 + shift, 2)
+        val second = parseDigits(value, 23 + shift, 2)
+        if (dayOfWeek == 0 || day < 0 || month == 0 || year < 0 || hour < 0 || minute < 0 || second < 0) return null
+
+        val end = 25 + shift
+        if (end < value.length && (value[end] != ' ' || !isRfc822Zone(value, end + 1))) return null
+
+        val dateTime = LocalDateTime(year, month, day, hour, minute, second)
+
+        // the formatter moves the date to the given day of week, leave this case to it
+        return if (dateTime.dayOfWeek == dayOfWeek) dateTime else null
+    }
+
+    private fun isIsoZone(value: String, index: Int, colonRequired: Boolean): Boolean =
+            if (index == value.length - 1) value[index] == 'Z' else index < value.length && isOffset(value, index, colonRequired)
+
+    private fun isRfc822Zone(value: String, index: Int): Boolean = when (value.length - index) {
+        0 -> true
+        1 -> value[index] == 'Z'
+        2 -> value.regionMatches(index, "UT", 0, 2)
+        3 -> value.regionMatches(index, "GMT", 0, 3) || value.regionMatches(index, "UTC", 0, 3)
+        else -> isOffset(value, index, false)
+    }
+
+    /**
+     * Check if value ends with an offset like +02:00, or +0200 if the colon is not [colonRequired]
+     */
+    private fun isOffset(value: String, index: Int, colonRequired: Boolean): Boolean {
+        if (value[index] != '+' && value[index] != '-') return false
+
+        val minutesIndex = when {
+            value.length - index == 6 && value[index + 3] == ':' -> index + 4
+            value.length - index == 5 && !colonRequired -> index + 3
+            else -> return false
+        }
+
+        return parseDigits(value, index + 1, 2) in 0..23 && parseDigits(value, minutesIndex, 2) in 0..59
+    }
+
+    /**
+     * @return index of the three letters name starting at [index] in [names], compared ignoring case, or -1
+     */
+    private fun indexOf(names: Array<String>, value: String, index: Int): Int =
+            names.indexOfFirst { value.regionMatches(index, it, 0, 3, ignoreCase = true) }
+
+    /**
+     * @return the number written with [count] digits at [index] or -1 if these are not only digits
+     */
+    private fun parseDigits(value: String, index: Int, count: Int): Int {
+        if (count <= 0 || index + count > value.length) return -1
+
+        var result = 0
+        for (i in index until index + count) {
+            if (!isDigit(value[i])) return -1
+            result = result * 10 + (value[i] - '0')
+        }
+
+        return result
+    }
+
+    private fun isDigit(c: Char) = c in '0'..'9'
+
     @JvmStatic
     fun formattedDateByLocal(dateTime: LocalDateTime): String {
         return DateTimeFormat.mediumDate()
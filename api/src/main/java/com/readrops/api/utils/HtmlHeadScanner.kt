@@ -0,0 +1,301 @@
+package com.readrops.api.utils
+
+import com.readrops.api.localfeed.LocalRSSHelper
+import okhttp3.HttpUrl
+import java.io.Reader
+
+/**
+ * Feed and icon links found in the head of an HTML page
+ */
+data class HtmlHeadLinks(
+        val feedLinks: List<FeedLink>,
+        val iconUrl: String?,
+) {
+
+    data class FeedLink(val url: String, val title: String?)
+}
+
+/**
+ * Streaming scanner looking for feed and icon links in the head of an HTML page, without building any DOM.
+ * Reading stops at the end of the head, at the start of the body or after [maxChars] characters,
+ * so the rest of the page is never downloaded.
+ */
+class HtmlHeadScanner(private val maxChars: Int = DEFAULT_MAX_CHARS) {
+
+    private lateinit var reader: Reader
+    private var readChars = 0
+    private var pushedBack = NONE
+
+    private lateinit var baseUrl: HttpUrl
+    private var baseFound = false
+    private val feedLinks = mutableListOf<HtmlHeadLinks.FeedLink>()
+    private var iconUrl: String? = null
+
+    /**
+     * @param reader page content
+     * @param url page url, used to resolve relative links
+     */
+    fun scan(reader: Reader, url: HttpUrl): HtmlHeadLinks {
+        this.reader = reader.buffered()
+        readChars = 0
+        pushedBack = NONE
+        baseUrl = url
+        baseFound = false
+        feedLinks.clear()
+        iconUrl = null
+
+        while (true) {
+            val c = read()
+            if (c == NONE) break
+
+            if (c == '<'.code && !readMarkup()) break
+        }
+
+        return HtmlHeadLinks(feedLinks.toList(), iconUrl)
+    }
+
+    /**
+     * Reads the markup following a '<'
+     * @return false if the scan is over
+     */
+    private fun readMarkup(): Boolean {
+        val c = read()
+
+        return when {
+            c == '!'.code -> {
+                if (readIf('-') && readIf('-')) skipUntil("-->") else skipUntil(">")
+                true
+            }
+            c == '?'.code -> {
+                skipUntil(">")
+                true
+            }
+            c == '/'.code -> {
+                val name = readName()
+                skipUntil(">")
+
+                name != "head"
+            }
+            isLetter(c) -> {
+                pushBack(c)
+                readStartTag()
+            }
+            else -> {
+                pushBack(c)
+                true
+            }
+        }
+    }
+
+    private fun readStartTag(): Boolean {
+        val name = readName()
+        val attributes = readAttributes()
+
+        when (name) {
+            "body" -> return false
+            "link" -> handleLink(attributes)
+            "base" -> attributes["href"]?.let {
+                if (!baseFound) {
+                    baseFound = true
+                    baseUrl.resolve(it)?.let { url -> baseUrl = url }
+                }
+            }
+            // their content is not markup
+            in RAW_TEXT_ELEMENTS -> skipUntilEndTag(name)
+        }
+
+        return true
+    }
+
+    private fun handleLink(attributes: Map<String, String>) {
+        val href = attributes["href"]?.let { baseUrl.resolve(it)?.toString() } ?: return
+
+        if (LocalRSSHelper.isRSSType(attributes["type"])) {
+            feedLinks += HtmlHeadLinks.FeedLink(href, attributes["title"])
+        } else if (iconUrl == null && attributes["rel"]?.lowercase()?.contains("icon") == true) {
+            iconUrl = href
+        }
+    }
+
+    private fun readName(): String {
+        val name = StringBuilder()
+
+        while (true) {
+            val c = read()
+
+            if (c == NONE || isWhitespace(c) || c == '>'.code || c == '/'.code) {
+                pushBack(c)
+                break
+            }
+
+            name.append(c.toChar().lowercaseChar())
+        }
+
+        return name.toString()
+    }
+
+    /**
+     * Reads attributes until the end of the tag
+     */
+    private fun readAttributes(): Map<String, String> {
+        val attributes = mutableMapOf<String, String>()
+
+        while (true) {
+            var c = skipWhitespaces()
+            if (c == NONE || c == '>'.code) break
+            if (c == '/'.code) continue
+
+            val name = StringBuilder()
+            while (c != NONE && !isWhitespace(c) && c != '='.code && c != '>'.code && c != '/'.code) {
+                name.append(c.toChar().lowercaseChar())
+                c = read()
+            }
+
+            if (isWhitespace(c)) c = skipWhitespaces()
+
+            if (c == '='.code) {
+                val value = readAttributeValue()
+                attributes.putIfAbsent(name.toString(), decodeEntities(value.trim()))
+            } else {
+                attributes.putIfAbsent(name.toString(), "")
+                pushBack(c)
+            }
+        }
+
+        return attributes
+    }
+
+    private fun readAttributeValue(): String {
+        val value = StringBuilder()
+        val first = skipWhitespaces()
+
+        if (first == '"'.code || first == '\''.code) {
+            while (true) {
+                val c = read()
+                if (c == NONE || c == first) break
+
+                value.append(c.toChar())
+            }
+        } else {
+            var c = first
+            while (c != NONE && !isWhitespace(c) && c != '>'.code) {
+                value.append(c.toChar())
+                c = read()
+            }
+
+            pushBack(c)
+        }
+
+        return value.toString()
+    }
+
+    private fun skipWhitespaces(): Int {
+        var c = read()
+        while (isWhitespace(c)) c = read()
+
+        return c
+    }
+
+    private fun skipUntil(delimiter: String) {
+        var matched = 0
+
+        while (matched < delimiter.length) {
+            val c = read()
+            if (c == NONE) return
+
+            matched = if (c == delimiter[matched].code) matched + 1 else fallback(delimiter, matched, c)
+        }
+    }
+
+    /**
+     * @return the length of the longest delimiter prefix ending the read chars, after a mismatch
+     */
+    private fun fallback(delimiter: String, matched: Int, c: Int): Int {
+        val read = delimiter.substring(0, matched) + c.toChar()
+
+        return (matched downTo 1).firstOrNull { read.endsWith(delimiter.substring(0, it)) } ?: 0
+    }
+
+    private fun skipUntilEndTag(name: String) {
+        while (true) {
+            skipUntil("</")
+
+            var matched = 0
+            var c = read()
+            while (matched < name.length && c != NONE && c.toChar().lowercaseChar() == name[matched]) {
+                matched++
+                c = read()
+            }
+
+            if (c == NONE) return
+            if (matched == name.length && (isWhitespace(c) || c == '>'.code || c == '/'.code)) {
+                pushBack(c)
+                skipUntil(">")
+                return
+            }
+
+            pushBack(c)
+        }
+    }
+
+    private fun readIf(expected: Char): Boolean {
+        val c = read()
+        if (c == expected.code) return true
+
+        pushBack(c)
+        return false
+    }
+
+    private fun read(): Int {
+        if (pushedBack != NONE) {
+            val c = pushedBack
+            pushedBack = NONE
+            return c
+        }
+
+        if (readChars >= maxChars) return NONE
+        readChars++
+
+        return reader.read()
+    }
+
+    private fun pushBack(c: Int) {
+        pushedBack = c
+    }
+
+    companion object {
+        const val DEFAULT_MAX_CHARS = 256 * 1024
+
+        private const val NONE = -1
+
+        private val RAW_TEXT_ELEMENTS = setOf("script", "style", "title", "textarea", "template")
+
+        private val ENTITIES = mapOf("amp" to "&", "lt" to "<", "gt" to ">", "quot" to "\"", "apos" to "'")
+
+        private val ENTITY_REGEX = Regex("&(#[xX][0-9a-fA-F]+|#[0-9]+|[a-zA-Z]+);")
+
+        private fun isLetter(c: Int) = c in 'a'.code..'z'.code || c in 'A'.code..'Z'.code
+
+        private fun isWhitespace(c: Int) = c == ' '.code || c == '\n'.code || c == '\t'.code ||
+                c == '\r'.code || c == 0x0C
+
+        private fun codePointToString(codePoint: Int?): String? =
+                if (codePoint != null && Character.isValidCodePoint(codePoint))
+                    String(Character.toChars(codePoint)) else null
+
+        fun decodeEntities(value: String): String {
+            if (!value.contains('&')) return value
+
+            return ENTITY_REGEX.replace(value) {
+                val entity = it.groupValues[1]
+
+                when {
+                    entity.startsWith("#x") || entity.startsWith("#X") ->
+                        codePointToString(entity.substring(2).toIntOrNull(16))
+                    entity.startsWith("#") -> codePointToString(entity.substring(1).toIntOrNull())
+                    else -> ENTITIES[entity.lowercase()]
+                } ?: it.value
+            }
+        }
+    }
+}
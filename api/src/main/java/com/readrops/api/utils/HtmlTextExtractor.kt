@@ -0,0 +1,489 @@
+package com.readrops.api.utils
+
+import org.jsoup.nodes.Entities
+
+/**
+ * Word count, text and beginning of the text of an HTML fragment
+ */
+data class TextMetrics(
+        val wordCount: Int,
+        val text: String,
+        val excerpt: String,
+) {
+
+    /**
+     * Read time in minutes
+     */
+    val readTime: Double
+        get() = wordCount.toDouble() / WORDS_PER_MINUTE
+
+    companion object {
+        const val WORDS_PER_MINUTE = 250
+    }
+}
+
+/**
+ * Extracts the text of an HTML fragment in a single pass, without building any DOM.
+ * The result is the one of Jsoup's `Jsoup.parse(html).text()` : markup, comments, scripts and styles
+ * are removed, entities are decoded, whitespaces are collapsed and block elements are separated by a space.
+ * Unlike Jsoup, misplaced elements are not moved around, which only matters for broken documents.
+ */
+object HtmlTextExtractor {
+
+    @JvmStatic
+    fun extract(html: String): String = Extraction(html, Int.MAX_VALUE, false).run().text
+
+    /**
+     * @return the beginning of [html] text, at most [maxLength] characters long,
+     * the rest of [html] not being read
+     */
+    @JvmStatic
+    fun extract(html: String, maxLength: Int): String = Extraction(html, maxLength, true).run().text
+
+    /**
+     * Reads the whole text of [html] to count its words, the excerpt being its [excerptMaxLength] first characters
+     */
+    @JvmStatic
+    fun measure(html: String, excerptMaxLength: Int): TextMetrics {
+        val extraction = Extraction(html, Int.MAX_VALUE, false).run()
+        val text = extraction.text
+
+        return TextMetrics(extraction.wordCount, text, excerpt(text, excerptMaxLength))
+    }
+
+    /**
+     * @return the [maxLength] first characters of [text], without splitting a surrogate pair
+     */
+    private fun excerpt(text: String, maxLength: Int): String {
+        if (text.length <= maxLength) return text
+
+        var cut = maxLength
+        if (cut > 0 && Character.isHighSurrogate(text[cut - 1])) cut--
+
+        return text.substring(0, cut).trimEnd { it <= ' ' }
+    }
+
+    private class Extraction(
+            private val html: String,
+            private val maxLength: Int,
+            private val stopAtMaxLength: Boolean,
+    ) {
+
+        private val builder = StringBuilder(minOf(html.length, maxLength))
+        private var index = 0
+
+        // text length, including what went beyond maxLength
+        private var length = 0
+        private var lastChar = NONE
+        var wordCount = 0
+            private set
+
+        // a block element has ended, its next sibling must be separated from it
+        private var blockEnded = false
+        private var preDepth = 0
+
+        // end tags of elements which are not open are ignored
+        private val openElements = ArrayList<String>()
+
+        fun run(): Extraction {
+            while (index < html.length && !(stopAtMaxLength && length >= maxLength)) {
+                val tagStart = html.indexOf('<', index)
+                val textEnd = if (tagStart == -1) html.length else tagStart
+
+                if (textEnd > index) appendText(index, textEnd, decode = true, preserve = preDepth > 0)
+                index = textEnd
+
+                if (tagStart != -1) readMarkup()
+            }
+
+            return this
+        }
+
+        // like Java's trim, unlike Kotlin's which also removes non-breaking spaces
+        val text: String
+            get() = builder.toString().trim { it <= ' ' }
+
+        /**
+         * Reads the markup starting at a '<'
+         */
+        private fun readMarkup() {
+            val next = if (index + 1 < html.length) html[index + 1] else NONE
+
+            when {
+                next == '!' -> readDeclaration()
+                next == '?' -> index = skipPast(">", index + 2)
+                next == '/' -> readEndTag()
+                isLetter(next) -> readStartTag()
+                else -> {
+                    // a lone '<' is text
+                    appendText(index, index + 1, decode = false, preserve = preDepth > 0)
+                    index++
+                }
+            }
+        }
+
+        private fun readDeclaration() {
+            when {
+                html.startsWith("<!--", index) -> {
+                    val start = index + 4
+
+                    index = when {
+                        html.startsWith(">", start) -> start + 1
+                        html.startsWith("->", start) -> start + 2
+                        else -> {
+                            val end = html.indexOf("--", start).let { if (it == -1) html.length else it }
+                            skipCommentEnd(end)
+                        }
+                    }
+                }
+                html.startsWith("<![CDATA[", index) -> {
+                    val start = index + 9
+                    val end = html.indexOf("]]>", start).let { if (it == -1) html.length else it }
+
+                    appendText(start, end, decode = false, preserve = preDepth > 0)
+                    index = minOf(end + 3, html.length)
+                }
+                else -> index = skipPast(">", index + 2)
+            }
+        }
+
+        /**
+         * A comment ends with "-->" or "--!>", other double dashes being part of it
+         */
+        private fun skipCommentEnd(dashes: Int): Int {
+            var position = dashes
+
+            while (position < html.length) {
+                if (html.startsWith("-->", position)) return position + 3
+                if (html.startsWith("--!>", position)) return position + 4
+
+                position = html.indexOf("--", position + 1).let { if (it == -1) html.length else it }
+            }
+
+            return html.length
+        }
+
+        private fun readStartTag() {
+            val nameEnd = nameEnd(index + 1)
+            val name = html.substring(index + 1, nameEnd).lowercase()
+            val tagEnd = tagEnd(nameEnd)
+
+            // an unfinished tag is dropped
+            if (tagEnd == -1) {
+                index = html.length
+                return
+            }
+
+            index = tagEnd + 1
+
+            if (name == "br" || name in BLOCK_TAGS) {
+                blockEnded = false
+                if (length > 0 && !endsWithSpace()) appendSpace()
+            } else {
+                appendSeparator()
+            }
+
+            if (name !in VOID_TAGS && name !in RAW_CONTENT_TAGS) openElements += name
+
+            when (name) {
+                "pre", "listing" -> {
+                    preDepth++
+                    // a newline right after the start tag is ignored
+                    if (html.startsWith("\n", index)) index++
+                }
+                in SKIPPED_TAGS -> index = rawTextEnd(name, index).second
+                in ESCAPABLE_RAW_TEXT_TAGS -> readRawText(name, decode = true, preserve = true)
+                in RAW_TEXT_TAGS -> readRawText(name, decode = false, preserve = preDepth > 0)
+            }
+
+            // these elements have no content to wait for, or their end tag has already been read
+            if (name in VOID_BLOCK_TAGS || name in RAW_CONTENT_TAGS) blockEnded = name in BLOCK_TAGS
+        }
+
+        private fun readEndTag() {
+            if (!isLetter(if (index + 2 < html.length) html[index + 2] else NONE)) {
+                // not a valid end tag, ignored as a comment would be
+                index = skipPast(">", index + 2)
+                return
+            }
+
+            val nameEnd = nameEnd(index + 2)
+            val name = html.substring(index + 2, nameEnd).lowercase()
+            val tagEnd = tagEnd(nameEnd)
+
+            index = if (tagEnd == -1) html.length else tagEnd + 1
+
+            val openIndex = openElements.lastIndexOf(name)
+            if (openIndex == -1) {
+                // handled as start tags
+                if (name == "br" || name == "p") {
+                    blockEnded = false
+                    if (length > 0 && !endsWithSpace()) appendSpace()
+                    blockEnded = name == "p"
+                }
+
+                return
+            }
+
+            // elements left open inside are closed as well
+            for (i in openElements.size - 1 downTo openIndex) {
+                if (openElements[i] == "pre" || openElements[i] == "listing") preDepth--
+                openElements.removeAt(i)
+            }
+
+            // if the element ending was the last child of its parent, there is no sibling to separate from
+            blockEnded = name in BLOCK_TAGS
+        }
+
+        private fun readRawText(name: String, decode: Boolean, preserve: Boolean) {
+            val (contentEnd, end) = rawTextEnd(name, index)
+
+            if (contentEnd > index) appendText(index, contentEnd, decode, preserve)
+            index = end
+        }
+
+        /**
+         * @return the end of the raw text content of element [name] and the position after its end tag
+         */
+        private fun rawTextEnd(name: String, start: Int): Pair<Int, Int> {
+            var position = start
+
+            while (true) {
+                val endTag = html.indexOf("</", position)
+                if (endTag == -1) return Pair(html.length, html.length)
+
+                val nameEnd = endTag + 2 + name.length
+                if (html.regionMatches(endTag + 2, name, 0, name.length, ignoreCase = true) &&
+                        (nameEnd == html.length || isWhitespace(html[nameEnd]) || html[nameEnd] == '/' || html[nameEnd] == '>')) {
+                    val tagEnd = tagEnd(nameEnd)
+                    return Pair(endTag, if (tagEnd == -1) html.length else tagEnd + 1)
+                }
+
+                position = endTag + 2
+            }
+        }
+
+        /**
+         * Separates an inline content from a previous block element
+         */
+        private fun appendSeparator() {
+            if (blockEnded) {
+                blockEnded = false
+                if (!endsWithSpace()) appendSpace()
+            }
+        }
+
+        /**
+         * Appends html[start, end), collapsing whitespaces to a single space unless they must be [preserve]d
+         */
+        private fun appendText(start: Int, end: Int, decode: Boolean, preserve: Boolean) {
+            appendSeparator()
+
+            var position = start
+            while (position < end) {
+                // plain characters are appended by runs
+                val runStart = position
+                while (position < end && !isSpecial(html[position], decode, preserve)) position++
+                if (position > runStart) appendRun(runStart, position)
+
+                if (position == end) break
+
+                if (html[position] == '&' && decode) {
+                    position = appendEntity(position, end)
+                } else {
+                    appendChar(html[position].code, preserve)
+                    position++
+                }
+            }
+        }
+
+        private fun isSpecial(c: Char, decode: Boolean, preserve: Boolean) = c == '&' && decode ||
+                c <= ' ' || c.code == 160 || !preserve && (c.code == SOFT_HYPHEN || c.code == ZERO_WIDTH_SPACE)
+
+        private fun isSeparator(c: Char) = c == NONE || isActuallyWhitespace(c.code)
+
+        private fun appendChar(c: Int, preserve: Boolean) {
+            when {
+                preserve -> appendCodePoint(c)
+                isActuallyWhitespace(c) -> if (!endsWithSpace()) appendSpace()
+                c != ZERO_WIDTH_SPACE && c != SOFT_HYPHEN -> appendCodePoint(c)
+            }
+        }
+
+        private fun appendSpace() {
+            if (builder.length < maxLength) builder.append(' ')
+
+            length++
+            lastChar = ' '
+        }
+
+        /**
+         * Appends html[start, end), which doesn't contain any whitespace
+         */
+        private fun appendRun(start: Int, end: Int) {
+            if (isSeparator(lastChar)) wordCount++
+
+            if (builder.length < maxLength) {
+                var cut = start + minOf(end - start, maxLength - builder.length)
+                if (cut < end && Character.isHighSurrogate(html[cut - 1])) cut--
+
+                builder.append(html, start, cut)
+            }
+
+            length += end - start
+            lastChar = html[end - 1]
+        }
+
+        private fun appendCodePoint(c: Int) {
+            if (!isActuallyWhitespace(c) && isSeparator(lastChar)) wordCount++
+
+            val charCount = Character.charCount(c)
+            if (builder.length + charCount <= maxLength) builder.appendCodePoint(c)
+
+            length += charCount
+            lastChar = if (charCount == 1) c.toChar() else Character.lowSurrogate(c)
+        }
+
+        /**
+         * Decodes the character reference starting at [start], or appends '&' if there is none
+         * @return the position after the reference
+         */
+        private fun appendEntity(start: Int, end: Int): Int {
+            val preserve = preDepth > 0
+
+            if (start + 1 < end && html[start + 1] == '#') {
+                val hex = start + 2 < end && (html[start + 2] == 'x' || html[start + 2] == 'X')
+                val digitsStart = if (hex) start + 3 else start + 2
+
+                var position = digitsStart
+                while (position < end && (if (hex) isHexDigit(html[position]) else html[position] in '0'..'9')) position++
+
+                if (position == digitsStart) {
+                    appendChar('&'.code, preserve)
+                    return start + 1
+                }
+
+                val codePoint = html.substring(digitsStart, position).toIntOrNull(if (hex) 16 else 10) ?: -1
+                if (position < end && html[position] == ';') position++
+
+                when {
+                    codePoint == 0 -> Unit
+                    codePoint == -1 || codePoint in 0xD800..0xDFFF || codePoint > 0x10FFFF ->
+                        appendChar(REPLACEMENT_CHAR, preserve)
+                    codePoint in WIN_1252_START until WIN_1252_START + WIN_1252_EXTENSIONS.size ->
+                        appendChar(WIN_1252_EXTENSIONS[codePoint - WIN_1252_START], preserve)
+                    else -> appendChar(codePoint, preserve)
+                }
+
+                return position
+            }
+
+            var position = start + 1
+            while (position < end && Character.isLetter(html[position])) position++
+            while (position < end && html[position] in '0'..'9') position++
+
+            val name = html.substring(start + 1, position)
+            val terminated = position < end && html[position] == ';'
+
+            if (name.isEmpty() || !(Entities.isBaseNamedEntity(name) || Entities.isNamedEntity(name) && terminated)) {
+                appendChar('&'.code, preserve)
+                return start + 1
+            }
+
+            val codePoints = IntArray(2)
+            val count = Entities.codepointsForName(name, codePoints)
+            for (i in 0 until count) appendChar(codePoints[i], preserve)
+
+            return if (terminated) position + 1 else position
+        }
+
+        private fun nameEnd(start: Int): Int {
+            var position = start
+            while (position < html.length && !isWhitespace(html[position]) && html[position] != '/' && html[position] != '>') position++
+
+            return position
+        }
+
+        /**
+         * @return the position of the '>' ending the tag, skipping quoted attribute values, or -1
+         */
+        private fun tagEnd(start: Int): Int {
+            var position = start
+            var afterEquals = false
+
+            while (position < html.length) {
+                val c = html[position]
+
+                when {
+                    c == '>' -> return position
+                    c == '=' -> afterEquals = true
+                    afterEquals && (c == '"' || c == '\'') -> {
+                        position = html.indexOf(c, position + 1)
+                        if (position == -1) return -1
+                        afterEquals = false
+                    }
+                    !isWhitespace(c) -> afterEquals = false
+                }
+
+                position++
+            }
+
+            return -1
+        }
+
+        private fun skipPast(delimiter: String, start: Int): Int {
+            val position = html.indexOf(delimiter, start)
+            return if (position == -1) html.length else position + delimiter.length
+        }
+
+        private fun endsWithSpace() = lastChar == ' '
+    }
+
+    private const val NONE = '\u0000'
+
+    private const val REPLACEMENT_CHAR = 0xFFFD
+    private const val ZERO_WIDTH_SPACE = 8203
+    private const val SOFT_HYPHEN = 173
+
+    // Jsoup's block tags, which are separated from their siblings
+    private val BLOCK_TAGS = setOf("html", "head", "body", "frameset", "script", "noscript", "style", "meta", "link",
+            "title", "frame", "noframes", "section", "nav", "aside", "hgroup", "header", "footer", "p", "h1", "h2",
+            "h3", "h4", "h5", "h6", "ul", "ol", "pre", "div", "blockquote", "hr", "address", "figure", "figcaption",
+            "form", "fieldset", "ins", "del", "dl", "dt", "dd", "li", "table", "caption", "thead", "tfoot", "tbody",
+            "colgroup", "col", "tr", "th", "td", "video", "audio", "canvas", "details", "menu", "plaintext",
+            "template", "article", "main", "svg", "math", "center")
+
+    private val VOID_TAGS = setOf("area", "base", "br", "col", "embed", "frame", "hr", "img", "input", "keygen",
+            "link", "meta", "param", "source", "track", "wbr")
+
+    private val VOID_BLOCK_TAGS = VOID_TAGS intersect BLOCK_TAGS
+
+    // elements whose content is not text
+    private val SKIPPED_TAGS = setOf("script", "style")
+
+    // elements whose content is text with entities
+    private val ESCAPABLE_RAW_TEXT_TAGS = setOf("title", "textarea")
+
+    // elements whose content is text without any entity
+    private val RAW_TEXT_TAGS = setOf("xmp", "iframe", "noembed", "noframes", "noscript")
+
+    private val RAW_CONTENT_TAGS = SKIPPED_TAGS + ESCAPABLE_RAW_TEXT_TAGS + RAW_TEXT_TAGS
+
+    private const val WIN_1252_START = 0x80
+
+    private val WIN_1252_EXTENSIONS = intArrayOf(
+            0x20AC, 0x0081, 0x201A, 0x0192, 0x201E, 0x2026, 0x2020, 0x2021,
+            0x02C6, 0x2030, 0x0160, 0x2039, 0x0152, 0x008D, 0x017D, 0x008F,
+            0x0090, 0x2018, 0x2019, 0x201C, 0x201D, 0x2022, 0x2013, 0x2014,
+            0x02DC, 0x2122, 0x0161, 0x203A, 0x0153, 0x009D, 0x017E, 0x0178,
+    )
+
+    private fun isLetter(c: Char) = c in 'a'..'z' || c in 'A'..'Z'
+
+    private fun isHexDigit(c: Char) = c in '0'..'9' || c in 'a'..'f' || c in 'A'..'F'
+
+    private fun isWhitespace(c: Char) = c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\u000C'
+
+    private fun isActuallyWhitespace(c: Int) = c == ' '.code || c == '\t'.code || c == '\n'.code ||
+            c == '\u000C'.code || c == '\r'.code || c == 160
+}
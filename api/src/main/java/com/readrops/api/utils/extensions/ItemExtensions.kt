@@ -0,0 +1,26 @@
+package com.readrops.api.utils.extensions
+
+import com.readrops.api.utils.HtmlTextExtractor
+import com.readrops.db.entities.Item
+
+/**
+ * Max length of the plain text description displayed in items list
+ */
+const val EXCERPT_MAX_LENGTH = 400
+
+/**
+ * Sets read time, plain text and clean description of the item from a single pass over its text,
+ * the description being read again only up to [EXCERPT_MAX_LENGTH] when the item has a content
+ */
+fun Item.computeTextMetrics() {
+    val text = text ?: return
+    val metrics = HtmlTextExtractor.measure(text, EXCERPT_MAX_LENGTH)
+
+    readTime = metrics.readTime
+    plainText = metrics.text
+
+    if (description != null) {
+        cleanDescription = if (content == null) metrics.excerpt
+        else HtmlTextExtractor.extract(description!!, EXCERPT_MAX_LENGTH)
+    }
+}
@@ -0,0 +1,96 @@
+package com.readrops.api.utils.extensions
+
+import com.readrops.api.utils.exceptions.ParseException
+import org.xmlpull.v1.XmlPullParser
+
+/**
+ * Moves to the root element of the document and checks its local name
+ */
+fun XmlPullParser.requireRoot(localName: String) {
+    while (next() != XmlPullParser.START_TAG) {
+        if (eventType == XmlPullParser.END_DOCUMENT) throw ParseException("Document has no root element")
+    }
+
+    if (name.substringAfter(':') != localName)
+        throw ParseException("Expected $localName root element but got $name")
+}
+
+/**
+ * Calls [block] with the name, as written in the document, of each child element of the current element.
+ * The parser is on the child start tag when [block] is called, what [block] doesn't read of the child is skipped.
+ */
+inline fun XmlPullParser.forEachChild(block: (tagName: String) -> Unit) {
+    val parentDepth = depth
+
+    while (true) {
+        when (next()) {
+            XmlPullParser.START_TAG -> {
+                val childDepth = depth
+
+                block(name)
+                skipToEndTag(childDepth)
+            }
+            XmlPullParser.END_TAG -> if (depth == parentDepth) return
+            XmlPullParser.END_DOCUMENT -> throw ParseException("Unexpected end of document")
+        }
+    }
+}
+
+/**
+ * Moves to the end tag of the element started at [depth], skipping its remaining content
+ */
+fun XmlPullParser.skipToEndTag(depth: Int) {
+    while (eventType != XmlPullParser.END_TAG || this.depth != depth) {
+        if (next() == XmlPullParser.END_DOCUMENT) throw ParseException("Unexpected end of document")
+    }
+}
+
+fun XmlPullParser.attribute(name: String): String? {
+    for (i in 0 until attributeCount) {
+        if (getAttributeName(i) == name) return getAttributeValue(i)
+    }
+
+    return null
+}
+
+fun XmlPullParser.nonNullText(): String {
+    val tagName = name
+    val text = readText(recursively = false)
+
+    return if (text.isNotEmpty()) text.trim() else throw ParseException("$tagName text can't be null")
+}
+
+fun XmlPullParser.nullableText(): String? {
+    val text = readText(recursively = false)
+    return if (text.isNotEmpty()) text.trim() else null
+}
+
+fun XmlPullParser.nullableTextRecursively(): String? {
+    val text = readText(recursively = true)
+    return if (text.isNotEmpty()) text.trim() else null
+}
+
+/**
+ * Reads the text of the current element, up to its end tag
+ * @param recursively true to include the text of child elements, false if the element can't have any
+ */
+private fun XmlPullParser.readText(recursively: Boolean): String {
+    val tagName = name
+    val depth = depth
+    var text = ""
+    var builder: StringBuilder? = null
+
+    while (true) {
+        when (next()) {
+            XmlPullParser.TEXT -> when {
+                builder != null -> builder.append(getText())
+                text.isEmpty() -> text = getText()
+                else -> builder = StringBuilder(text).append(getText())
+            }
+            XmlPullParser.START_TAG ->
+                if (!recursively) throw ParseException("$tagName can't contain a $name element")
+            XmlPullParser.END_TAG -> if (this.depth == depth) return builder?.toString() ?: text
+            XmlPullParser.END_DOCUMENT -> throw ParseException("Unexpected end of document")
+        }
+    }
+}
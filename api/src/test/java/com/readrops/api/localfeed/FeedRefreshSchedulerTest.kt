@@ -0,0 +1,54 @@
+package com.readrops.api.localfeed
+
+import junit.framework.TestCase.assertEquals
+import org.junit.Test
+import java.util.concurrent.TimeUnit
+
+class FeedRefreshSchedulerTest {
+
+    private val now = TimeUnit.DAYS.toMillis(365)
+
+    private fun pubDates(count: Int, interval: Long, newest: Long = now) =
+            (0 until count).map { newest - it * interval }
+
+    @Test
+    fun frequentFeedTest() {
+        val pubDates = pubDates(10, TimeUnit.HOURS.toMillis(1))
+
+        assertEquals(now + TimeUnit.MINUTES.toMillis(30),
+                FeedRefreshScheduler.nextRefresh(pubDates, true, now))
+    }
+
+    @Test
+    fun minDelayTest() {
+        val pubDates = pubDates(10, TimeUnit.MINUTES.toMillis(1))
+
+        assertEquals(now + FeedRefreshScheduler.MIN_DELAY,
+                FeedRefreshScheduler.nextRefresh(pubDates, true, now))
+    }
+
+    @Test
+    fun monthlyFeedTest() {
+        val pubDates = pubDates(10, TimeUnit.DAYS.toMillis(30))
+
+        assertEquals(now + FeedRefreshScheduler.MAX_DELAY,
+                FeedRefreshScheduler.nextRefresh(pubDates, true, now))
+    }
+
+    @Test
+    fun quietFeedTest() {
+        val hour = TimeUnit.HOURS.toMillis(1)
+        val pubDates = pubDates(10, hour, now - 6 * hour)
+
+        assertEquals(now + 3 * hour, FeedRefreshScheduler.nextRefresh(pubDates, false, now))
+        assertEquals(now + hour / 2, FeedRefreshScheduler.nextRefresh(pubDates, true, now))
+    }
+
+    @Test
+    fun noPubDatesTest() {
+        assertEquals(now + TimeUnit.HOURS.toMillis(1),
+                FeedRefreshScheduler.nextRefresh(listOf(), false, now))
+        assertEquals(now + TimeUnit.HOURS.toMillis(1),
+                FeedRefreshScheduler.nextRefresh(listOf(now), true, now))
+    }
+}
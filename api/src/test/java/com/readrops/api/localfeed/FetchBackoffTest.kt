@@ -0,0 +1,24 @@
+package com.readrops.api.localfeed
+
+import com.readrops.api.utils.exceptions.ParseException
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertFalse
+import junit.framework.TestCase.assertTrue
+import org.junit.Test
+import java.net.SocketTimeoutException
+
+class FetchBackoffTest {
+
+    @Test
+    fun retryAfterTest() {
+        assertEquals(100 + FetchBackoff.BASE_DELAY, FetchBackoff.retryAfter(1, 100))
+        assertEquals(FetchBackoff.BASE_DELAY * 4, FetchBackoff.retryAfter(3, 0))
+        assertEquals(FetchBackoff.MAX_DELAY, FetchBackoff.retryAfter(100, 0))
+    }
+
+    @Test
+    fun hostFailureTest() {
+        assertTrue(FetchBackoff.isHostFailure(SocketTimeoutException()))
+        assertFalse(FetchBackoff.isHostFailure(ParseException("")))
+    }
+}
@@ -0,0 +1,48 @@
+package com.readrops.api.localfeed
+
+import com.readrops.db.entities.HostFailure
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertFalse
+import junit.framework.TestCase.assertNull
+import junit.framework.TestCase.assertTrue
+import org.junit.Test
+
+class HostCircuitBreakerTest {
+
+    private val circuitBreaker = HostCircuitBreaker(2)
+
+    @Test
+    fun openCircuitTest() {
+        assertEquals(HostFailure("host.com", 1, 0), circuitBreaker.recordFailure("host.com", 10))
+        assertNull(circuitBreaker.getRetryAfter("host.com"))
+
+        assertEquals(HostFailure("host.com", 2, 20), circuitBreaker.recordFailure("host.com", 20))
+        assertEquals(20L, circuitBreaker.getRetryAfter("host.com"))
+        assertNull(circuitBreaker.getRetryAfter("other.com"))
+    }
+
+    @Test
+    fun successResetTest() {
+        circuitBreaker.recordFailure("host.com", 10)
+        assertTrue(circuitBreaker.recordSuccess("host.com"))
+        assertFalse(circuitBreaker.recordSuccess("host.com"))
+        circuitBreaker.recordFailure("host.com", 10)
+
+        assertNull(circuitBreaker.getRetryAfter("host.com"))
+    }
+
+    @Test
+    fun storedFailuresTest() {
+        val circuitBreaker = HostCircuitBreaker(2, listOf(HostFailure("host.com", 2, 20),
+                HostFailure("other.com", 1, 0)))
+
+        assertEquals(20L, circuitBreaker.getRetryAfter("host.com"))
+
+        // the previous sync failure counts
+        assertNull(circuitBreaker.getRetryAfter("other.com"))
+        assertEquals(HostFailure("other.com", 2, 10), circuitBreaker.recordFailure("other.com", 10))
+
+        // the retry time is only pushed back
+        assertEquals(HostFailure("host.com", 3, 20), circuitBreaker.recordFailure("host.com", 15))
+    }
+}
@@ -0,0 +1,64 @@
+package com.readrops.api.localfeed
+
+import com.readrops.db.entities.Feed
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertTrue
+import org.junit.Test
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+
+class LocalFeedDispatcherTest {
+
+    private val feeds = (1..20).map { Feed(url = "https://host${it % 4}.com/feed$it.xml") }
+
+    @Test
+    fun allFeedsProcessedTest() {
+        val processed = ConcurrentHashMap.newKeySet<Feed>()
+
+        LocalFeedDispatcher(4, 2).dispatch(feeds) { processed += it }
+
+        assertEquals(feeds.size, processed.size)
+    }
+
+    @Test
+    fun maxRequestsTest() {
+        val running = AtomicInteger(0)
+        val maxRunning = AtomicInteger(0)
+
+        LocalFeedDispatcher(3, 3).dispatch(feeds) {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), ::maxOf)
+            Thread.sleep(10)
+            running.decrementAndGet()
+        }
+
+        assertTrue(maxRunning.get() <= 3)
+    }
+
+    @Test
+    fun maxRequestsPerHostTest() {
+        val running = ConcurrentHashMap<String, AtomicInteger>()
+        val maxRunning = AtomicInteger(0)
+
+        LocalFeedDispatcher(8, 1).dispatch(feeds) {
+            val hostRunning = running.getOrPut(LocalFeedDispatcher.hostOf(it)) { AtomicInteger(0) }
+
+            maxRunning.accumulateAndGet(hostRunning.incrementAndGet(), ::maxOf)
+            Thread.sleep(10)
+            hostRunning.decrementAndGet()
+        }
+
+        assertEquals(1, maxRunning.get())
+    }
+
+    @Test
+    fun errorIsolationTest() {
+        val processed = AtomicInteger(0)
+
+        LocalFeedDispatcher(2, 1).dispatch(feeds) {
+            if (it.url!!.endsWith("feed1.xml")) throw IllegalStateException()
+            processed.incrementAndGet()
+        }
+
+        assertEquals(feeds.size - 1, processed.get())
+    }
+}
@@ -7,7 +7,9 @@ import com.readrops.api.utils.ApiUtils
 import com.readrops.api.utils.AuthInterceptor
 import com.readrops.api.utils.exceptions.ParseException
 import com.readrops.api.utils.exceptions.UnknownFormatException
+import com.readrops.db.entities.Item
 import junit.framework.TestCase.*
+import okhttp3.Cache
 import okhttp3.Headers
 import okhttp3.HttpUrl
 import okhttp3.OkHttpClient
@@ -23,6 +25,7 @@ import org.koin.test.KoinTest
 import org.koin.test.KoinTestRule
 import org.koin.test.inject
 import java.net.HttpURLConnection
+import java.nio.file.Files
 import java.util.concurrent.TimeUnit
 
 
@@ -81,6 +84,108 @@ class LocalRSSDataSourceTest : KoinTest {
         assertEquals(pair.second.size, 7)
     }
 
+    @Test
+    fun streamingQueryTest() {
+        val stream = TestUtils.loadResource("localfeed/rss2/rss_feed.xml")
+
+        mockServer.enqueue(MockResponse().setResponseCode(HttpURLConnection.HTTP_OK)
+                .addHeader(ApiUtils.CONTENT_TYPE_HEADER, "application/rss+xml; charset=UTF-8")
+                .setBody(Buffer().readFrom(stream)))
+
+        val items = arrayListOf<Item>()
+        val feed = localRSSDataSource.queryRSSResource(url.toString(), null, { items += it }, null, 0)!!
+
+        assertEquals(feed.name, "Hacker News")
+        assertEquals(items.size, 7)
+        assertEquals(items[0].title, "Africa declared free of wild polio")
+    }
+
+    @Test
+    fun xmlParserEngineTest() {
+        XmlParserEngine.values().forEach { engine ->
+            mockServer.enqueue(MockResponse().setResponseCode(HttpURLConnection.HTTP_OK)
+                    .addHeader(ApiUtils.CONTENT_TYPE_HEADER, "application/rss+xml; charset=UTF-8")
+                    .setBody(Buffer().readFrom(TestUtils.loadResource("localfeed/rss2/rss_feed.xml"))))
+
+            val items = arrayListOf<Item>()
+            val feed = localRSSDataSource.queryRSSResource(url.toString(), null, { items += it }, null, 0, engine)!!
+
+            assertEquals(engine.name, "Hacker News", feed.name)
+            assertEquals(engine.name, 7, items.size)
+        }
+    }
+
+    @Test
+    fun unchangedBodyDigestTest() {
+        val body = Buffer().readFrom(TestUtils.loadResource("localfeed/rss2/rss_feed.xml"))
+
+        repeat(2) {
+            mockServer.enqueue(MockResponse().setResponseCode(HttpURLConnection.HTTP_OK)
+                    .addHeader(ApiUtils.CONTENT_TYPE_HEADER, "application/rss+xml; charset=UTF-8")
+                    .setBody(body.copy()))
+        }
+
+        val feed = localRSSDataSource.queryRSSResource(url.toString(), null, { }, null, 0)!!
+        assertEquals(body.sha256().hex(), feed.bodyDigest)
+
+        // an unchanged feed is not parsed again
+        var items = 0
+        assertNull(localRSSDataSource.queryRSSResource(url.toString(), null, { items++ }, feed.bodyDigest, 0))
+        assertEquals(0, items)
+    }
+
+    @Test
+    fun partialBodyDigestTest() {
+        val body = Buffer().readFrom(TestUtils.loadResource("localfeed/rss2/rss_feed.xml"))
+
+        mockServer.enqueue(MockResponse().setResponseCode(HttpURLConnection.HTTP_OK)
+                .addHeader(ApiUtils.CONTENT_TYPE_HEADER, "application/rss+xml; charset=UTF-8")
+                .setBody(body.copy()))
+
+        val sink = object : StoppableItemSink {
+            var count = 0
+
+            override fun accept(item: Item) {
+                count++
+            }
+
+            override val isSatisfied get() = count >= 2
+        }
+
+        // the digest covers the whole body, even if the parsing stopped early
+        val feed = localRSSDataSource.queryRSSResource(url.toString(), null, sink, null, 0)!!
+        assertEquals(body.sha256().hex(), feed.bodyDigest)
+    }
+
+    @Test
+    fun validatorHeadersDigestTest() {
+        mockServer.enqueue(MockResponse().setResponseCode(HttpURLConnection.HTTP_OK)
+                .addHeader(ApiUtils.CONTENT_TYPE_HEADER, "application/rss+xml; charset=UTF-8")
+                .addHeader(ApiUtils.ETAG_HEADER, "ETag-value")
+                .setBody(Buffer().readFrom(TestUtils.loadResource("localfeed/rss2/rss_feed.xml"))))
+
+        val feed = localRSSDataSource.queryRSSResource(url.toString(), null, { }, null, 0)!!
+        assertNull(feed.bodyDigest)
+    }
+
+    @Test
+    fun minRefreshIntervalTest() {
+        val cacheDir = Files.createTempDirectory("http_cache").toFile()
+        val dataSource = LocalRSSDataSource(OkHttpClient.Builder()
+                .cache(Cache(cacheDir, 1024 * 1024))
+                .build())
+
+        mockServer.enqueue(MockResponse().setResponseCode(HttpURLConnection.HTTP_OK)
+                .addHeader(ApiUtils.CONTENT_TYPE_HEADER, "application/rss+xml; charset=UTF-8")
+                .setBody(Buffer().readFrom(TestUtils.loadResource("localfeed/rss2/rss_feed.xml"))))
+
+        assertNotNull(dataSource.queryRSSResource(url.toString(), null, { }, null, 60))
+        assertNull(dataSource.queryRSSResource(url.toString(), null, { }, null, 60))
+        assertEquals(mockServer.requestCount, 1)
+
+        cacheDir.deleteRecursively()
+    }
+
     @Test
     fun headersTest() {
         val stream = TestUtils.loadResource("localfeed/rss2/rss_feed.xml")
@@ -203,4 +308,19 @@ class LocalRSSDataSourceTest : KoinTest {
 
         assertFalse(localRSSDataSource.isUrlRSSResource(url.toString()))
     }
-}
\ No newline at end of file
+
+    @Test
+    fun isUrlRSSResourceSingleDownloadTest() {
+        mockServer.enqueue(MockResponse().setResponseCode(HttpURLConnection.HTTP_OK)
+                .addHeader(ApiUtils.CONTENT_TYPE_HEADER, "application/xml; charset=UTF-8")
+                .setBody(Buffer().readFrom(TestUtils.loadResource("localfeed/rss2/rss_feed.xml"))))
+
+        assertTrue(localRSSDataSource.isUrlRSSResource(url.toString()))
+
+        val pair = localRSSDataSource.queryRSSResource(url.toString(), null)!!
+
+        assertEquals(pair.first.name, "Hacker News")
+        assertEquals(pair.second.size, 7)
+        assertEquals(mockServer.requestCount, 1)
+    }
+}
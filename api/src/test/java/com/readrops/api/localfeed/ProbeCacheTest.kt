@@ -0,0 +1,52 @@
+package com.readrops.api.localfeed
+
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertNull
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.Response
+import okio.ByteString.Companion.encodeUtf8
+import org.junit.Test
+
+class ProbeCacheTest {
+
+    private var now = 0L
+    private val probeCache = ProbeCache(2, 1000) { now }
+
+    private fun response(url: String) = Response.Builder()
+            .request(Request.Builder().url(url).build())
+            .protocol(Protocol.HTTP_1_1)
+            .code(200)
+            .message("OK")
+            .header("Content-Type", "application/rss+xml")
+            .build()
+
+    @Test
+    fun takeTest() {
+        probeCache.put("https://feed.com/rss", response("https://feed.com/rss"), "body".encodeUtf8())
+
+        val response = probeCache.take("https://feed.com/rss")!!
+        assertEquals("body", response.body!!.string())
+        assertEquals("application/rss+xml", response.header("Content-Type"))
+
+        assertNull(probeCache.take("https://feed.com/rss"))
+    }
+
+    @Test
+    fun maxAgeTest() {
+        probeCache.put("https://feed.com/rss", response("https://feed.com/rss"), "body".encodeUtf8())
+        now = 2000
+
+        assertNull(probeCache.take("https://feed.com/rss"))
+    }
+
+    @Test
+    fun maxEntriesTest() {
+        (1..3).forEach {
+            probeCache.put("https://feed$it.com/rss", response("https://feed$it.com/rss"), "body".encodeUtf8())
+        }
+
+        assertNull(probeCache.take("https://feed1.com/rss"))
+        assertEquals("body", probeCache.take("https://feed3.com/rss")!!.body!!.string())
+    }
+}
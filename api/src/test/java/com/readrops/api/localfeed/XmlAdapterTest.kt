@@ -1,8 +1,11 @@
 package com.readrops.api.localfeed
 
 import com.readrops.api.localfeed.atom.ATOMFeedAdapter
+import com.readrops.api.localfeed.atom.ATOMPullFeedAdapter
 import com.readrops.api.localfeed.rss1.RSS1FeedAdapter
+import com.readrops.api.localfeed.rss1.RSS1PullFeedAdapter
 import com.readrops.api.localfeed.rss2.RSS2FeedAdapter
+import com.readrops.api.localfeed.rss2.RSS2PullFeedAdapter
 import junit.framework.Assert.assertTrue
 import org.junit.Assert.assertThrows
 import org.junit.Rule
@@ -24,4 +27,15 @@ class XmlAdapterTest {
             XmlAdapter.xmlFeedAdapterFactory(LocalRSSHelper.RSSType.UNKNOWN)
         }
     }
+
+    @Test
+    fun pullFeedAdapterFactoryTest() {
+        assertTrue(PullAdapter.pullFeedAdapterFactory(LocalRSSHelper.RSSType.RSS_1) is RSS1PullFeedAdapter)
+        assertTrue(PullAdapter.pullFeedAdapterFactory(LocalRSSHelper.RSSType.RSS_2) is RSS2PullFeedAdapter)
+        assertTrue(PullAdapter.pullFeedAdapterFactory(LocalRSSHelper.RSSType.ATOM) is ATOMPullFeedAdapter)
+
+        assertThrows(java.lang.IllegalArgumentException::class.java) {
+            PullAdapter.pullFeedAdapterFactory(LocalRSSHelper.RSSType.JSONFEED)
+        }
+    }
 }
\ No newline at end of file
@@ -1,16 +1,20 @@
 package com.readrops.api.localfeed.json
 
 import com.readrops.api.TestUtils
+import com.readrops.api.localfeed.StoppableItemSink
 import com.readrops.api.utils.DateUtils
 import com.readrops.api.utils.exceptions.ParseException
 import com.readrops.db.entities.Feed
 import com.readrops.db.entities.Item
+import com.squareup.moshi.JsonReader
 import com.squareup.moshi.Moshi
 import com.squareup.moshi.Types
 import junit.framework.TestCase
 import junit.framework.TestCase.assertEquals
 import junit.framework.TestCase.assertTrue
 import okio.Buffer
+import okio.buffer
+import okio.source
 import org.junit.Assert.assertThrows
 import org.junit.Test
 
@@ -50,6 +54,23 @@ class JSONFeedAdapterTest {
 
     }
 
+    @Test
+    fun earlyStopTest() {
+        val stream = TestUtils.loadResource("localfeed/json/json_feed.json")
+
+        val items = arrayListOf<Item>()
+        val feed = JSONFeedAdapter().fromJson(JsonReader.of(Buffer().readFrom(stream)), object : StoppableItemSink {
+            override val isSatisfied get() = items.size == 3
+
+            override fun accept(item: Item) {
+                items += item
+            }
+        })
+
+        assertEquals(feed.name, "News from Flying Meat")
+        assertEquals(items.size, 3)
+    }
+
     @Test
     fun otherCasesTest() {
         val stream = TestUtils.loadResource("localfeed/json/json_items_other_cases.json")
@@ -92,4 +113,19 @@ class JSONFeedAdapterTest {
         assertEquals("Item link is required", exception.message)
     }
 
+    @Test
+    fun sharedAdapterTest() {
+        val sharedAdapter = JSONFeedAdapter()
+
+        val titles = (1..8).toList().parallelStream().map {
+            val stream = TestUtils.loadResource("localfeed/json/json_feed.json")
+            val items = arrayListOf<Item>()
+
+            sharedAdapter.fromJson(JsonReader.of(stream.source().buffer())) { items += it }
+            items.map { it.title }
+        }.distinct().toArray()
+
+        assertEquals(1, titles.size)
+        assertEquals(10, (titles[0] as List<*>).size)
+    }
 }
\ No newline at end of file
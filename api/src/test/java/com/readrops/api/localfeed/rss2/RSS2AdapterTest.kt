@@ -2,8 +2,10 @@ package com.readrops.api.localfeed.rss2
 
 import com.gitlab.mvysny.konsumexml.konsumeXml
 import com.readrops.api.TestUtils
+import com.readrops.api.localfeed.StoppableItemSink
 import com.readrops.api.utils.DateUtils
 import com.readrops.api.utils.exceptions.ParseException
+import com.readrops.db.entities.Item
 import junit.framework.TestCase
 import junit.framework.TestCase.assertEquals
 import junit.framework.TestCase.assertTrue
@@ -40,6 +42,34 @@ class RSS2AdapterTest {
         }
     }
 
+    @Test
+    fun streamingTest() {
+        val stream = TestUtils.loadResource("localfeed/rss2/rss_feed.xml")
+
+        val titles = arrayListOf<String?>()
+        val feed = adapter.fromXml(stream.konsumeXml()) { titles += it.title }
+
+        assertEquals(feed.name, "Hacker News")
+        assertEquals(titles.size, 7)
+        assertEquals(titles[0], "Africa declared free of wild polio")
+    }
+
+    @Test
+    fun earlyStopTest() {
+        val stream = TestUtils.loadResource("localfeed/rss2/rss_feed.xml")
+
+        val titles = arrayListOf<String?>()
+        val feed = adapter.fromXml(stream.konsumeXml(), object : StoppableItemSink {
+            override val isSatisfied get() = titles.size == 2
+
+            override fun accept(item: Item) {
+                titles += item.title
+            }
+        })
+
+        assertEquals(feed.name, "Hacker News")
+        assertEquals(titles.size, 2)
+    }
 
     @Test
     fun nullTitleTest() {
@@ -0,0 +1,110 @@
+package com.readrops.api.utils
+
+import com.readrops.api.TestUtils
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertNotNull
+import junit.framework.TestCase.assertNull
+import junit.framework.TestCase.assertTrue
+import org.junit.Ignore
+import org.junit.Test
+
+class DateUtilsFastPathTest {
+
+    private val corpus: List<String> by lazy {
+        CORPUS_FILES.flatMap { path ->
+            val content = TestUtils.loadResource(path).bufferedReader().use { it.readText() }
+
+            DATE_REGEX.findAll(content).map { it.groupValues[1].ifEmpty { it.groupValues[2] } }.toList()
+        }
+    }
+
+    @Test
+    fun corpusTest() {
+        assertTrue(corpus.isNotEmpty())
+
+        corpus.forEach {
+            assertNotNull(it, DateUtils.parseFast(it))
+            assertEquals(it, DateUtils.parseWithFormatter(it), DateUtils.parseFast(it))
+        }
+    }
+
+    @Test
+    fun sameResultAsFormatterTest() {
+        VARIANTS.forEach {
+            val expected = DateUtils.parseWithFormatter(it)
+
+            assertEquals(it, expected, DateUtils.parse(it))
+            DateUtils.parseFast(it)?.let { fastResult -> assertEquals(it, expected, fastResult) }
+        }
+    }
+
+    @Test
+    fun fallbackTest() {
+        // wrong day of week, moved by the formatter
+        assertNull(DateUtils.parseFast("Sat, 04 Jan 2019 22:21:46 GMT"))
+        assertNull(DateUtils.parseFast("Fri, 04 Jan 2019 22:21:46 EDT"))
+        assertNull(DateUtils.parseFast("2020-06-30T11:39:37+02"))
+
+        assertNotNull(DateUtils.parse("Fri, 04 Jan 2019 22:21:46 EDT"))
+    }
+
+    @Ignore("benchmark, run it manually")
+    @Test
+    fun benchmark() {
+        val dates = List(BENCHMARK_SIZE / corpus.size + 1) { corpus }.flatten().take(BENCHMARK_SIZE)
+
+        // formatter built for each date, as it used to be
+        measure("formatter built for each date", dates) {
+            DateUtils.parseWithFormatter(it, DateUtils.buildFormatter())
+        }
+        measure("formatter built once", dates) { DateUtils.parseWithFormatter(it) }
+        measure("fast path", dates) { DateUtils.parse(it) }
+    }
+
+    private fun measure(name: String, dates: List<String>, block: (String) -> Any?) {
+        repeat(BENCHMARK_WARMUP) { dates.forEach { date -> block(date) } }
+
+        val start = System.nanoTime()
+        repeat(BENCHMARK_ROUNDS) { dates.forEach { date -> block(date) } }
+        val elapsed = System.nanoTime() - start
+
+        println("$name : ${elapsed / (dates.size * BENCHMARK_ROUNDS)} ns per date")
+    }
+
+    companion object {
+        private const val BENCHMARK_SIZE = 100_000
+
+        private const val BENCHMARK_WARMUP = 10
+
+        private const val BENCHMARK_ROUNDS = 10
+
+        private val DATE_REGEX = Regex("<(?:pubDate|dc:date|updated|published)>([^<]+)<|\"date_(?:published|modified)\"\\s*:\\s*\"([^\"]+)\"")
+
+        private val CORPUS_FILES = listOf(
+                "localfeed/rss2/rss_feed.xml",
+                "localfeed/rss2/rss_items_other_namespaces.xml",
+                "localfeed/rss1/rss1_feed.xml",
+                "localfeed/atom/atom_feed.xml",
+                "localfeed/json/json_feed.json",
+        )
+
+        private val VARIANTS = listOf(
+                "Fri, 04 Jan 2019 22:21:46 GMT", "Fri, 04 Jan 2019 22:21:46 UTC", "Fri, 04 Jan 2019 22:21:46 UT",
+                "Fri, 04 Jan 2019 22:21:46 Z", "Fri, 04 Jan 2019 22:21:46 +0000", "Fri, 04 Jan 2019 22:21:46 -0500",
+                "Fri, 04 Jan 2019 22:21:46 +02:00", "Fri, 04 Jan 2019 22:21:46", "Fri, 04 Jan 2019 22:21:46 ",
+                "Fri, 4 Jan 2019 22:21:46 GMT", "FRI, 04 JAN 2019 22:21:46 GMT", "fri, 04 jan 2019 22:21:46 gmt",
+                "Sat, 04 Jan 2019 22:21:46 GMT", "Fri, 04 Jan 2019 22:21:46 EDT", "Fri, 04 Jan 2019 22:21:46 CEST",
+                "Fri, 04 Jan 2019 22:21:46  GMT", " Fri, 04 Jan 2019 22:21:46 GMT", "04 Jan 2019 22:21:46 GMT",
+                "Fri, 04 Jan 2019 22:21 GMT", "Friday, 04 Jan 2019 22:21:46 GMT", "Fri, 04 January 2019 22:21:46 GMT",
+                "Fri, 04 Jan 2019 22:21:46 +0000 (UTC)", "Fri, 04 Jan 2019 22:21:46 +2500", "Fri, 31 Feb 2019 22:21:46 GMT",
+                "Fri, 04 Jan 2019 24:21:46 GMT", "Fri, 04 Jan 2019 22:21:46 GMTX",
+                "2019-01-04T22:21:46+00:00", "2019-01-04T22:21:46-0000", "2019-01-04T22:21:46Z", "2019-01-04T22:21:46",
+                "2019-01-04T22:21:46+02", "2019-01-04T22:21:46 GMT", "2019-01-04T22:21:46GMT", "2019-01-04t22:21:46Z",
+                "2019-01-04T22:21:46ZZ", "2019-01-04T22:21:46+02:00x",
+                "2020-06-30T11:39:37.206-07:00", "2020-06-30T11:39:37.2-07:00", "2020-06-30T11:39:37.20Z",
+                "2020-06-30T11:39:37.206Z", "2020-06-30T11:39:37.206-0700", "2020-06-30T11:39:37.206",
+                "2020-06-30T11:39:37.206123-07:00", "2020-06-30T11:39:37.Z", "2020-02-30T11:39:37Z",
+                "2020-06-30T24:00:00Z", "2020-6-30T11:39:37Z", "", "2019", "not a date",
+        )
+    }
+}
@@ -0,0 +1,50 @@
+package com.readrops.api.utils
+
+import com.readrops.api.TestUtils
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertNull
+import junit.framework.TestCase.assertTrue
+import okhttp3.HttpUrl.Companion.toHttpUrl
+import org.junit.Test
+import java.io.StringReader
+
+class HtmlHeadScannerTest {
+
+    private val url = "https://www.site.com/index.html".toHttpUrl()
+
+    @Test
+    fun headLinksTest() {
+        val stream = TestUtils.loadResource("utils/html_head.html")
+        val links = HtmlHeadScanner().scan(stream.reader(), url)
+
+        assertEquals("https://www.site.com/favicon.ico?v=1&s=2", links.iconUrl)
+        assertEquals(listOf(
+                HtmlHeadLinks.FeedLink("https://www.site.com/news/rss.xml", "Main feed"),
+                HtmlHeadLinks.FeedLink("https://feeds.site.com/atom", null),
+                HtmlHeadLinks.FeedLink("https://www.site.com/news/feed.json", "JSON & more")
+        ), links.feedLinks)
+    }
+
+    @Test
+    fun maxCharsTest() {
+        val html = "<html><head><script>" + "a".repeat(1000) + "</script>" +
+                "<link rel=\"icon\" href=\"/favicon.ico\"></head></html>"
+
+        assertNull(HtmlHeadScanner(500).scan(StringReader(html), url).iconUrl)
+        assertEquals("https://www.site.com/favicon.ico",
+                HtmlHeadScanner(2000).scan(StringReader(html), url).iconUrl)
+    }
+
+    @Test
+    fun stopAtBodyTest() {
+        val html = "<html><body><link rel=\"alternate\" type=\"application/rss+xml\" href=\"/rss.xml\"></body></html>"
+
+        assertTrue(HtmlHeadScanner().scan(StringReader(html), url).feedLinks.isEmpty())
+    }
+
+    @Test
+    fun decodeEntitiesTest() {
+        assertEquals("a & b < c é &unknown; &#xFFFFFFF;",
+                HtmlHeadScanner.decodeEntities("a &amp; b &lt; c &#xe9; &unknown; &#xFFFFFFF;"))
+    }
+}
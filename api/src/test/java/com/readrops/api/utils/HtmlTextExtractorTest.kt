@@ -0,0 +1,177 @@
+package com.readrops.api.utils
+
+import com.readrops.api.TestUtils
+import com.squareup.moshi.JsonReader
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertTrue
+import okio.buffer
+import okio.source
+import org.jsoup.Jsoup
+import org.junit.Ignore
+import org.junit.Test
+import org.w3c.dom.Element
+import javax.xml.parsers.DocumentBuilderFactory
+
+class HtmlTextExtractorTest {
+
+    private val fixtures: List<String> by lazy {
+        XML_FIXTURES.flatMap { xmlTexts(it) } + JSON_FIXTURES.flatMap { jsonTexts(it) }
+    }
+
+    @Test
+    fun sameAsJsoupOnFixturesTest() {
+        assertTrue(fixtures.isNotEmpty())
+
+        fixtures.forEach { assertEquals(it, Jsoup.parse(it).text(), HtmlTextExtractor.extract(it)) }
+    }
+
+    @Test
+    fun sameAsJsoupTest() {
+        EDGE_CASES.forEach { assertEquals(it, Jsoup.parse(it).text(), HtmlTextExtractor.extract(it)) }
+    }
+
+    @Test
+    fun blockElementsTest() {
+        assertEquals("Title Some text with a link. quote after",
+                HtmlTextExtractor.extract("<h1>Title</h1><p>Some <em>text</em> with a <a href=\"#\">link</a>.</p><blockquote>quote</blockquote>after"))
+    }
+
+    @Test
+    fun entitiesTest() {
+        assertEquals("<b> & é € ' & b", HtmlTextExtractor.extract("&lt;b&gt; &amp; &eacute; &#128; &#x27; &amp b"))
+    }
+
+    @Test
+    fun excerptTest() {
+        val html = "<p>Some <em>text</em> with a <a href=\"#\">link</a>.</p>"
+
+        assertEquals("Some tex", HtmlTextExtractor.extract(html, 8))
+        assertEquals(HtmlTextExtractor.extract(html), HtmlTextExtractor.extract(html, 1000))
+        EDGE_CASES.forEach {
+            val excerpt = HtmlTextExtractor.extract(it, 5)
+
+            assertTrue(it, excerpt.length <= 5 && HtmlTextExtractor.extract(it).startsWith(excerpt))
+        }
+    }
+
+    @Test
+    fun wordCountTest() {
+        val metrics = HtmlTextExtractor.measure("<p class=\"intro\">One <b>two</b>three</p><p>four&nbsp;five &amp; six</p>" +
+                "<script>var seven = 7;</script><img src=\"eight.png\"/>", 8)
+
+        assertEquals(6, metrics.wordCount)
+        assertEquals("One twothree four five & six", metrics.text)
+        assertEquals("One twot", metrics.excerpt)
+        assertEquals("One", HtmlTextExtractor.measure("<p>One two</p>", 4).excerpt)
+        assertEquals(0, HtmlTextExtractor.measure("<p> </p><br/>", 10).wordCount)
+        assertEquals(3, HtmlTextExtractor.measure("<pre>a\n b\tc</pre>", 10).wordCount)
+    }
+
+    @Test
+    fun wordCountOnFixturesTest() {
+        fixtures.forEach {
+            val expected = Jsoup.parse(it).text()
+                    .split(' ', '\u00a0', '\n', '\t', '\r', '\u000c')
+                    .count { word -> word.isNotEmpty() }
+
+            assertEquals(it, expected, HtmlTextExtractor.measure(it, 100).wordCount)
+        }
+    }
+
+    @Ignore("benchmark, run it manually")
+    @Test
+    fun benchmark() {
+        val texts = List(BENCHMARK_SIZE / fixtures.size + 1) { fixtures }.flatten().take(BENCHMARK_SIZE)
+
+        measure("Jsoup", texts) { Jsoup.parse(it).text() }
+        measure("HtmlTextExtractor", texts) { HtmlTextExtractor.extract(it) }
+    }
+
+    private fun measure(name: String, texts: List<String>, block: (String) -> String) {
+        repeat(BENCHMARK_WARMUP) { texts.forEach { text -> block(text) } }
+
+        val start = System.nanoTime()
+        repeat(BENCHMARK_ROUNDS) { texts.forEach { text -> block(text) } }
+        val elapsed = System.nanoTime() - start
+
+        println("$name : ${elapsed / (texts.size * BENCHMARK_ROUNDS)} ns per text")
+    }
+
+    private fun xmlTexts(path: String): List<String> {
+        val document = DocumentBuilderFactory.newInstance()
+                .newDocumentBuilder()
+                .parse(TestUtils.loadResource(path))
+
+        return XML_ELEMENTS.flatMap { name ->
+            val elements = document.getElementsByTagName(name)
+            (0 until elements.length).map { (elements.item(it) as Element).textContent }
+        }
+    }
+
+    private fun jsonTexts(path: String): List<String> {
+        val texts = mutableListOf<String>()
+
+        fun read(reader: JsonReader) {
+            when (reader.peek()) {
+                JsonReader.Token.BEGIN_OBJECT -> {
+                    reader.beginObject()
+                    while (reader.hasNext()) {
+                        reader.skipName()
+                        read(reader)
+                    }
+                    reader.endObject()
+                }
+                JsonReader.Token.BEGIN_ARRAY -> {
+                    reader.beginArray()
+                    while (reader.hasNext()) read(reader)
+                    reader.endArray()
+                }
+                JsonReader.Token.STRING -> texts += reader.nextString()
+                else -> reader.skipValue()
+            }
+        }
+
+        JsonReader.of(TestUtils.loadResource(path).source().buffer()).use { read(it) }
+        return texts
+    }
+
+    companion object {
+        private const val BENCHMARK_SIZE = 10_000
+
+        private const val BENCHMARK_WARMUP = 10
+
+        private const val BENCHMARK_ROUNDS = 10
+
+        private val XML_ELEMENTS = listOf("title", "description", "content", "content:encoded", "summary")
+
+        private val XML_FIXTURES = listOf(
+                "localfeed/rss2/rss_feed.xml",
+                "localfeed/rss2/rss_items_other_namespaces.xml",
+                "localfeed/rss2/rss_items_media_content.xml",
+                "localfeed/rss1/rss1_feed.xml",
+                "localfeed/rss1/rss1_items_special_cases.xml",
+                "localfeed/atom/atom_feed.xml",
+                "localfeed/atom/atom_items.xml",
+        )
+
+        private val JSON_FIXTURES = listOf(
+                "localfeed/json/json_feed.json",
+                "localfeed/json/json_items_other_cases.json",
+                "services/freshrss/adapters/items.json",
+                "services/nextcloudnews/adapters/items.json",
+        )
+
+        private val EDGE_CASES = listOf(
+                "    <p>This is a text<br/>to</p> clean    ", "a</br>b", "a<hr>b", "<p>a</p>\n<p>b</p>",
+                "<span><p>a</p></span>b", "<div><p>a</p></div>b", "<ul><li>a</li><li>b</li></ul>c",
+                "a<p>b<div>c</div>d</p>e", "a</p>b", "text</blockquote>word",
+                "x<pre>\n\na  b</pre>y", "<pre> word</pre>", "<textarea> a &amp; b </textarea>",
+                "<xmp>&amp; <b> x</xmp>", "a<script>x<\\/script>b</script>c", "a<style>p{}</STYLE >b",
+                "a<!-->b", "a<!--->b", "a<!-- x -- y --!>b-->c", "a<?php x ?>b", "<![CDATA[x]]>y", "a</ b>c",
+                "a < b", "a <3 b", "a<b", "a<img src='x>y'>b", "a<img src=x>y>b",
+                "&#0;", "&#xD800;", "&#150;", "&#129;", "&#x1F600;", "&#65", "&#x;", "&AMP;", "&Amp;",
+                "&lt", "&lta", "&lt1", "&copy2019", "&notit; x", "&amp\u00e9", "a&#9;&#10;b", "a\u00adb",
+                "a&#8203;b", "&nbsp;&nbsp;a", "a<p>&nbsp;</p>b",
+        )
+    }
+}
@@ -0,0 +1,53 @@
+package com.readrops.api.utils
+
+import com.readrops.api.utils.extensions.EXCERPT_MAX_LENGTH
+import com.readrops.api.utils.extensions.computeTextMetrics
+import com.readrops.db.entities.Item
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertNull
+import org.junit.Test
+
+class ItemExtensionsTest {
+
+    @Test
+    fun contentMetricsTest() {
+        val item = Item(description = "<p>A short description</p>",
+                content = "<div><p>" + "word ".repeat(500) + "</p></div>")
+        item.computeTextMetrics()
+
+        assertEquals(2.0, item.readTime)
+        assertEquals("word ".repeat(500).trim(), item.plainText)
+        assertEquals("A short description", item.cleanDescription)
+    }
+
+    @Test
+    fun descriptionMetricsTest() {
+        val text = "word ".repeat(250)
+        val item = Item(description = "<p>$text</p>")
+        item.computeTextMetrics()
+
+        assertEquals(1.0, item.readTime)
+        assertEquals(text.trim(), item.plainText)
+        assertEquals(text.take(EXCERPT_MAX_LENGTH).trim(), item.cleanDescription)
+    }
+
+    @Test
+    fun longDescriptionTest() {
+        val text = "word ".repeat(500)
+        val item = Item(description = "<p>$text</p>", content = "<p>content</p>")
+        item.computeTextMetrics()
+
+        assertEquals("content", item.plainText)
+        assertEquals(text.take(EXCERPT_MAX_LENGTH).trim(), item.cleanDescription)
+    }
+
+    @Test
+    fun noTextTest() {
+        val item = Item(title = "title")
+        item.computeTextMetrics()
+
+        assertEquals(0.0, item.readTime)
+        assertNull(item.plainText)
+        assertNull(item.cleanDescription)
+    }
+}
@@ -0,0 +1,112 @@
+package com.readrops.app
+
+import android.content.Context
+import androidx.room.Room
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.platform.app.InstrumentationRegistry
+import com.readrops.api.localfeed.LocalFeedDispatcher
+import com.readrops.api.localfeed.LocalRSSDataSource
+import com.readrops.app.addfeed.ParsingResult
+import com.readrops.app.repositories.LocalFeedRepository
+import com.readrops.db.Database
+import com.readrops.db.entities.account.Account
+import com.readrops.db.entities.account.AccountType
+import okhttp3.Cache
+import okhttp3.OkHttpClient
+import okhttp3.mockwebserver.Dispatcher
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import okhttp3.mockwebserver.RecordedRequest
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotNull
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import java.io.File
+import java.net.HttpURLConnection
+
+@RunWith(AndroidJUnit4::class)
+class LocalFeedRepositoryTest {
+
+    private lateinit var database: Database
+    private lateinit var repository: LocalFeedRepository
+
+    private val context: Context = InstrumentationRegistry.getInstrumentation().targetContext
+    private val cacheDir = File(context.cacheDir, "local_feed_repository_test")
+    private val mockServer = MockWebServer()
+
+    @Before
+    fun before() {
+        mockServer.dispatcher = object : Dispatcher() {
+            override fun dispatch(request: RecordedRequest): MockResponse = if (request.path == "/rss") {
+                MockResponse().setResponseCode(HttpURLConnection.HTTP_OK)
+                        .addHeader("Content-Type", "application/rss+xml; charset=UTF-8")
+                        .setBody(rssFeed(mockServer.url("/").toString()))
+            } else {
+                MockResponse().setResponseCode(HttpURLConnection.HTTP_NOT_FOUND)
+            }
+        }
+        mockServer.start()
+
+        database = Room.inMemoryDatabaseBuilder(context, Database::class.java)
+                .addCallback(Database.CALLBACK)
+                .build()
+
+        // the default account minimum refresh interval applies
+        val account = Account().apply {
+            accountName = "local"
+            accountType = AccountType.LOCAL
+        }
+        account.id = database.accountDao().insert(account).blockingGet().toInt()
+
+        val httpClient = OkHttpClient.Builder()
+                .cache(Cache(cacheDir, 1024 * 1024))
+                .build()
+
+        repository = LocalFeedRepository(LocalRSSDataSource(httpClient), LocalFeedDispatcher(), database,
+                context, account)
+    }
+
+    @After
+    fun after() {
+        database.close()
+        mockServer.shutdown()
+        cacheDir.deleteRecursively()
+    }
+
+    @Test
+    fun addedFeedItemsTest() {
+        val results = repository.addFeeds(listOf(ParsingResult(mockServer.url("/rss").toString(), null)))
+                .blockingGet()
+        val feed = results[0].feed
+        assertNotNull(feed)
+
+        // the response cached when adding the feed doesn't stand for its items
+        repository.sync(listOf(feed)).blockingSubscribe()
+
+        assertEquals(2, database.itemDao().getGuids(feed.id).size)
+    }
+
+    private fun rssFeed(siteUrl: String) = """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <rss version="2.0">
+            <channel>
+                <title>Feed</title>
+                <link>$siteUrl</link>
+                <item>
+                    <title>Item 1</title>
+                    <link>${siteUrl}item1</link>
+                    <guid>item1</guid>
+                    <pubDate>Mon, 12 Oct 2020 10:00:00 GMT</pubDate>
+                </item>
+                <item>
+                    <title>Item 2</title>
+                    <link>${siteUrl}item2</link>
+                    <guid>item2</guid>
+                    <pubDate>Sun, 11 Oct 2020 10:00:00 GMT</pubDate>
+                </item>
+            </channel>
+        </rss>
+    """.trimIndent()
+}
@@ -46,6 +46,7 @@ class SyncResultAnalyserTest {
     @Before
     fun setupDb() {
         database = Room.inMemoryDatabaseBuilder(context, Database::class.java)
+                .addCallback(Database.CALLBACK)
                 .build()
 
         var account1Id = 0
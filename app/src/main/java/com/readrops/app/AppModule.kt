@@ -14,6 +14,7 @@ import com.readrops.app.repositories.FreshRSSRepository
 import com.readrops.app.repositories.LocalFeedRepository
 import com.readrops.app.repositories.NextNewsRepository
 import com.readrops.app.utils.GlideApp
+import com.readrops.app.utils.feedscolors.SiteIconCache
 import com.readrops.db.entities.account.Account
 import com.readrops.db.entities.account.AccountType
 import org.koin.android.ext.koin.androidApplication
@@ -21,12 +22,13 @@ import org.koin.android.ext.koin.androidContext
 import org.koin.androidx.viewmodel.dsl.viewModel
 import org.koin.core.parameter.parametersOf
 import org.koin.dsl.module
+import java.io.File
 
 val appModule = module {
 
     factory { (account: Account) ->
         when (account.accountType) {
-            AccountType.LOCAL -> LocalFeedRepository(get(), get(), androidContext(), account)
+            AccountType.LOCAL -> LocalFeedRepository(get(), get(), get(), androidContext(), account)
             AccountType.NEXTCLOUD_NEWS -> NextNewsRepository(get(parameters = { parametersOf(Credentials.toCredentials(account)) }),
                     get(), androidContext(), account)
             AccountType.FRESHRSS -> FreshRSSRepository(get(parameters = { parametersOf(Credentials.toCredentials(account)) }),
@@ -61,6 +63,8 @@ val appModule = module {
 
     single { GlideApp.with(androidApplication()) }
 
+    single { SiteIconCache(get(), File(androidContext().filesDir, SiteIconCache.ICONS_DIRECTORY)) }
+
     single { PreferenceManager.getDefaultSharedPreferences(androidContext()) }
 
     single<Niddler> {
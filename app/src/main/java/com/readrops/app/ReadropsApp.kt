@@ -8,6 +8,8 @@ import androidx.appcompat.app.AppCompatDelegate
 import androidx.preference.PreferenceManager
 import com.readrops.api.apiModule
 import com.readrops.app.utils.SharedPreferencesManager
+import com.readrops.app.utils.maintenance.DatabaseMaintenanceWorker
+import com.readrops.app.utils.retention.RetentionWorker
 import com.readrops.db.dbModule
 import io.reactivex.plugins.RxJavaPlugins
 import org.koin.android.ext.koin.androidContext
@@ -31,6 +33,9 @@ open class ReadropsApp : Application() {
             modules(apiModule, dbModule, appModule)
         }
 
+        RetentionWorker.schedule(this)
+        DatabaseMaintenanceWorker.schedule(this)
+
         if (SharedPreferencesManager.readString(SharedPreferencesManager.SharedPrefKey.DARK_THEME).toBoolean())
             AppCompatDelegate.setDefaultNightMode(AppCompatDelegate.MODE_NIGHT_YES)
         else
@@ -50,6 +50,15 @@ public class AccountViewModel extends ViewModel {
         return database.accountDao().update(account);
     }
 
+    public Completable updateRetentionPolicy(Account account) {
+        return database.accountDao().updateRetentionPolicy(account.getId(), account.getRetentionMaxAge(),
+                account.getRetentionMaxItems(), account.isRetentionKeepStarred());
+    }
+
+    public Completable updateMinRefreshInterval(Account account) {
+        return database.accountDao().updateMinRefreshInterval(account.getId(), account.getMinRefreshInterval());
+    }
+
     public Completable delete(Account account) {
         return database.accountDao().delete(account);
     }
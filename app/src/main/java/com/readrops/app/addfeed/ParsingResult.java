@@ -26,6 +26,9 @@ public class ParsingResult extends AbstractItem<ParsingResult, ParsingResult.Par
 
     private Integer folderId;
 
+    // icon of the page the feed was found in, so it isn't downloaded again when inserting the feed
+    private String iconUrl;
+
     public ParsingResult(String url, String label) {
         this.url = url;
         this.label = label;
@@ -59,6 +62,14 @@ public class ParsingResult extends AbstractItem<ParsingResult, ParsingResult.Par
         this.label = label;
     }
 
+    public String getIconUrl() {
+        return iconUrl;
+    }
+
+    public void setIconUrl(String iconUrl) {
+        this.iconUrl = iconUrl;
+    }
+
     public void setChecked(boolean checked) {
         this.checked = checked;
     }
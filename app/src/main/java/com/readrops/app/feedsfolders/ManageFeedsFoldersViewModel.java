@@ -78,6 +78,15 @@ public class ManageFeedsFoldersViewModel extends ViewModel {
         return repository.deleteFolder(folder);
     }
 
+    public Completable updateFeedRetentionPolicy(Feed feed) {
+        return database.feedDao().updateRetentionPolicy(feed.getId(), feed.getRetentionMaxAge(),
+                feed.getRetentionMaxItems(), feed.isRetentionKeepStarred());
+    }
+
+    public Completable updateFeedMinRefreshInterval(Feed feed) {
+        return database.feedDao().updateMinRefreshInterval(feed.getId(), feed.getMinRefreshInterval());
+    }
+
     public Completable deleteFeed(Feed feed) {
         return repository.deleteFeed(feed);
     }
@@ -52,9 +52,13 @@ class FeedOptionsDialogFragment : BottomSheetDialogFragment() {
         super.onViewCreated(view, savedInstanceState)
 
         binding.feedOptionsTitle.text = feedWithFolder.feed.name
+        // only local feeds are queried one by one
+        binding.feedOptionsRefreshLayout.visibility = if (account.isLocal) View.VISIBLE else View.GONE
 
         binding.feedOptionsEditLayout.setOnClickListener { openEditFeedDialog() }
         binding.feedOptionsOpenRootLayout.setOnClickListener { openFeedRootUrl() }
+        binding.feedOptionsRefreshLayout.setOnClickListener { editMinRefreshInterval() }
+        binding.feedOptionsRetentionLayout.setOnClickListener { editRetention() }
         binding.feedOptionsDeleteLayout.setOnClickListener { deleteFeed() }
     }
 
@@ -79,6 +83,16 @@ class FeedOptionsDialogFragment : BottomSheetDialogFragment() {
         startActivity(Intent(Intent.ACTION_VIEW, Uri.parse(feedWithFolder.feed.siteUrl)))
     }
 
+    private fun editMinRefreshInterval() {
+        dismiss()
+        (parentFragment as FeedsFragment).editMinRefreshInterval(feedWithFolder.feed)
+    }
+
+    private fun editRetention() {
+        dismiss()
+        (parentFragment as FeedsFragment).editRetentionMaxAge(feedWithFolder.feed)
+    }
+
     private fun deleteFeed() {
         dismiss()
         (parentFragment as FeedsFragment).deleteFeed(feedWithFolder.feed)
@@ -1,5 +1,7 @@
 package com.readrops.app.feedsfolders.feeds;
 
+import android.content.Context;
+import android.text.format.DateUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -14,6 +16,7 @@ import com.bumptech.glide.load.engine.DiskCacheStrategy;
 import com.readrops.app.R;
 import com.readrops.app.databinding.FeedLayoutBinding;
 import com.readrops.app.utils.GlideRequests;
+import com.readrops.db.entities.Feed;
 import com.readrops.db.pojo.FeedWithFolder;
 
 import org.koin.java.KoinJavaComponent;
@@ -37,6 +40,8 @@ public class FeedsAdapter extends ListAdapter<FeedWithFolder, FeedsAdapter.FeedV
                 folder = feedWithFolder.getFolder().getName().equals(t1.getFolder().getName());
 
             return feedWithFolder.getFeed().getName().equals(t1.getFeed().getName())
+                    && feedWithFolder.getFeed().getFailureCount() == t1.getFeed().getFailureCount()
+                    && feedWithFolder.getFeed().getRetryAfter() == t1.getFeed().getRetryAfter()
                     && folder;
         }
 
@@ -81,6 +86,8 @@ public class FeedsAdapter extends ListAdapter<FeedWithFolder, FeedsAdapter.FeedV
         } else
             viewHolder.binding.feedLayoutDescription.setVisibility(View.GONE);
 
+        bindFailureState(viewHolder.binding, feedWithFolder.getFeed());
+
         if (feedWithFolder.getFolder() != null)
             viewHolder.binding.feedLayoutFolder.setText(feedWithFolder.getFolder().getName());
         else
@@ -106,10 +113,24 @@ public class FeedsAdapter extends ListAdapter<FeedWithFolder, FeedsAdapter.FeedV
             else
                 holder.binding.feedLayoutName.setText(R.string.no_folder);
 
+            bindFailureState(holder.binding, feedWithFolder.getFeed());
         } else
             onBindViewHolder(holder, position);
     }
 
+    private void bindFailureState(FeedLayoutBinding binding, Feed feed) {
+        if (feed.getFailureCount() > 0) {
+            Context context = binding.getRoot().getContext();
+            String retryTime = DateUtils.formatDateTime(context, feed.getRetryAfter(),
+                    DateUtils.FORMAT_SHOW_DATE | DateUtils.FORMAT_SHOW_TIME);
+
+            binding.feedLayoutFailure.setVisibility(View.VISIBLE);
+            binding.feedLayoutFailure.setText(context.getString(R.string.feed_refresh_failures,
+                    feed.getFailureCount(), retryTime));
+        } else
+            binding.feedLayoutFailure.setVisibility(View.GONE);
+    }
+
     public interface ManageFeedsListener {
         void onOpenLink(FeedWithFolder feedWithFolder);
 
@@ -22,6 +22,10 @@ import com.readrops.db.entities.Feed;
 import com.readrops.db.entities.account.Account;
 import com.readrops.db.pojo.FeedWithFolder;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.observers.DisposableCompletableObserver;
 import io.reactivex.schedulers.Schedulers;
@@ -142,6 +146,66 @@ public class FeedsFragment extends Fragment {
                 .show();
     }
 
+    public void editRetentionMaxAge(Feed feed) {
+        String[] values = getResources().getStringArray(R.array.retention_max_age_values);
+
+        List<String> items = new ArrayList<>();
+        items.add(getString(R.string.account_setting));
+        items.addAll(Arrays.asList(getResources().getStringArray(R.array.retention_max_age)));
+
+        int selectedIndex = 0;
+        if (feed.getRetentionMaxAge() != null) {
+            int index = Arrays.asList(values).indexOf(String.valueOf(feed.getRetentionMaxAge()));
+            selectedIndex = index >= 0 ? index + 1 : -1;
+        }
+
+        new MaterialDialog.Builder(getContext())
+                .title(R.string.delete_items_older_than)
+                .items(items)
+                .itemsCallbackSingleChoice(selectedIndex, (dialog, itemView, which, text) -> {
+                    // the first choice falls back to the account policy
+                    feed.setRetentionMaxAge(which == 0 ? null : Integer.valueOf(values[which - 1]));
+
+                    viewModel.updateFeedRetentionPolicy(feed)
+                            .subscribeOn(Schedulers.io())
+                            .observeOn(AndroidSchedulers.mainThread())
+                            .doOnError(e -> Utils.showSnackbar(binding.feedsRoot, getString(R.string.error_occured)))
+                            .subscribe();
+                    return true;
+                })
+                .show();
+    }
+
+    public void editMinRefreshInterval(Feed feed) {
+        String[] values = getResources().getStringArray(R.array.min_refresh_interval_values);
+
+        List<String> items = new ArrayList<>();
+        items.add(getString(R.string.account_setting));
+        items.addAll(Arrays.asList(getResources().getStringArray(R.array.min_refresh_interval)));
+
+        int selectedIndex = 0;
+        if (feed.getMinRefreshInterval() != null) {
+            int index = Arrays.asList(values).indexOf(String.valueOf(feed.getMinRefreshInterval()));
+            selectedIndex = index >= 0 ? index + 1 : -1;
+        }
+
+        new MaterialDialog.Builder(getContext())
+                .title(R.string.min_refresh_interval)
+                .items(items)
+                .itemsCallbackSingleChoice(selectedIndex, (dialog, itemView, which, text) -> {
+                    // the first choice falls back to the account interval
+                    feed.setMinRefreshInterval(which == 0 ? null : Integer.valueOf(values[which - 1]));
+
+                    viewModel.updateFeedMinRefreshInterval(feed)
+                            .subscribeOn(Schedulers.io())
+                            .observeOn(AndroidSchedulers.mainThread())
+                            .doOnError(e -> Utils.showSnackbar(binding.feedsRoot, getString(R.string.error_occured)))
+                            .subscribe();
+                    return true;
+                })
+                .show();
+    }
+
     private void openFeedOptionsFragment(FeedWithFolder feedWithFolder) {
         FeedOptionsDialogFragment dialogFragment = FeedOptionsDialogFragment.Companion.newInstance(feedWithFolder, account);
 
@@ -28,13 +28,16 @@ import com.mikepenz.materialdrawer.model.PrimaryDrawerItem;
 import com.mikepenz.materialdrawer.model.ProfileDrawerItem;
 import com.mikepenz.materialdrawer.model.ProfileSettingDrawerItem;
 import com.mikepenz.materialdrawer.model.SecondaryDrawerItem;
+import com.mikepenz.materialdrawer.model.interfaces.Badgeable;
 import com.mikepenz.materialdrawer.model.interfaces.IDrawerItem;
 import com.mikepenz.materialdrawer.model.interfaces.IProfile;
 import com.readrops.app.R;
 import com.readrops.app.utils.customviews.CustomExpandableBadgeDrawerItem;
 import com.readrops.db.entities.Feed;
+import com.readrops.db.entities.FeedCounters;
 import com.readrops.db.entities.Folder;
 import com.readrops.db.entities.account.Account;
+import com.readrops.db.pojo.FolderCounters;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -60,6 +63,9 @@ public class DrawerManager {
     private Drawer drawer;
     private FastAdapter<IDrawerItem> adapter;
 
+    // feed and folder items by identifier, collapsed folders feeds included
+    private final Map<Long, IDrawerItem> badgeItems = new HashMap<>();
+
     private AccountHeader header;
     private Drawer.OnDrawerItemClickListener listener;
     private AccountHeader.OnAccountHeaderListener headerListener;
@@ -160,6 +166,7 @@ public class DrawerManager {
         drawer.removeAllStickyFooterItems();
 
         addDefaultPlaces();
+        badgeItems.clear();
 
         Map<SecondaryDrawerItem, Feed> feedsWithoutFolder = new HashMap<>();
 
@@ -179,6 +186,7 @@ public class DrawerManager {
 
                     SecondaryDrawerItem secondaryDrawerItem = createSecondaryItem(feed);
                     secondaryDrawerItems.add(secondaryDrawerItem);
+                    badgeItems.put(secondaryDrawerItem.getIdentifier(), secondaryDrawerItem);
 
                     loadItemIcon(secondaryDrawerItem, feed);
                 }
@@ -187,11 +195,13 @@ public class DrawerManager {
                     badgeDrawerItem.withSubItems(secondaryDrawerItems);
                     badgeDrawerItem.withBadge(String.valueOf(expandableUnreadCount));
                     drawer.addItem(badgeDrawerItem);
+                    badgeItems.put(badgeDrawerItem.getIdentifier(), badgeDrawerItem);
                 }
             } else { // no folder case, items to add after the folders
                 for (Feed feed : folderListMap.get(folder)) {
                     SecondaryDrawerItem secondaryItem = createSecondaryItem(feed);
                     feedsWithoutFolder.put(secondaryItem, feed);
+                    badgeItems.put(secondaryItem.getIdentifier(), secondaryItem);
                 }
             }
         }
@@ -203,6 +213,34 @@ public class DrawerManager {
         }
     }
 
+    /**
+     * Updates the feeds unread badges, without rebuilding the drawer
+     */
+    public void updateFeedBadges(List<FeedCounters> feedCounters) {
+        for (FeedCounters counters : feedCounters) {
+            updateBadge(counters.getFeedId(), counters.getUnreadCount());
+        }
+    }
+
+    /**
+     * Updates the folders unread badges, without rebuilding the drawer
+     */
+    public void updateFolderBadges(List<FolderCounters> folderCounters) {
+        for (FolderCounters counters : folderCounters) {
+            updateBadge(counters.getFolderId() * 1000L, counters.getUnreadCount());
+        }
+    }
+
+    private void updateBadge(long identifier, int count) {
+        IDrawerItem item = badgeItems.get(identifier);
+
+        if (item != null) {
+            ((Badgeable) item).withBadge(String.valueOf(count));
+            // no-op if the item isn't displayed, its badge will be bound when it is
+            drawer.updateItem(item);
+        }
+    }
+
     private void createAccountHeader(List<Account> accounts, int currentAccountId) {
         ProfileDrawerItem[] profileItems = new ProfileDrawerItem[accounts.size()];
 
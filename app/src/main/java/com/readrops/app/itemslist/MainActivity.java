@@ -23,6 +23,7 @@ import android.view.View;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.SearchView;
 import androidx.core.content.ContextCompat;
 import androidx.core.graphics.drawable.DrawableCompat;
 import androidx.drawerlayout.widget.DrawerLayout;
@@ -158,6 +159,10 @@ public class MainActivity extends AppCompatActivity implements SwipeRefreshLayou
             return true;
         });
 
+        // badges follow the item states, the drawer is only rebuilt when feeds or folders change
+        viewModel.getFeedCounters().observe(this, drawerManager::updateFeedBadges);
+        viewModel.getFolderCounters().observe(this, drawerManager::updateFolderBadges);
+
         drawerManager.setHeaderListener((view, profile, current) -> {
             if (!current) {
                 int id = (int) profile.getIdentifier();
@@ -361,7 +366,6 @@ public class MainActivity extends AppCompatActivity implements SwipeRefreshLayou
                             .subscribe();
 
                     adapter.notifyItemChanged(position, itemWithFeed);
-                    updateDrawerFeeds();
                 } else {
                     adapter.toggleSelection(position);
                     int selectionSize = adapter.getSelection().size();
@@ -542,7 +546,6 @@ public class MainActivity extends AppCompatActivity implements SwipeRefreshLayou
         }
 
         adapter.updateSelection(read);
-        updateDrawerFeeds();
         actionMode.finish();
     }
 
@@ -692,6 +695,23 @@ public class MainActivity extends AppCompatActivity implements SwipeRefreshLayou
         MenuItem articlesItem = menu.findItem(R.id.item_filter_read_items);
         articlesItem.setChecked(viewModel.showReadItems());
 
+        SearchView searchView = (SearchView) menu.findItem(R.id.item_search).getActionView();
+        searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                searchView.clearFocus();
+                return true;
+            }
+
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                viewModel.setSearchQuery(newText);
+                scrollToTop = true;
+                viewModel.invalidate();
+                return true;
+            }
+        });
+
         return true;
     }
 
@@ -3,6 +3,8 @@ package com.readrops.app.itemslist;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 import androidx.lifecycle.ViewModel;
 import androidx.paging.DataSource;
 import androidx.paging.LivePagedListBuilder;
@@ -11,15 +13,17 @@ import androidx.paging.PagedList;
 import com.readrops.app.repositories.ARepository;
 import com.readrops.app.utils.SharedPreferencesManager;
 import com.readrops.db.Database;
-import com.readrops.db.queries.ItemsQueryBuilder;
+import com.readrops.db.ItemsDataSource;
+import com.readrops.db.queries.ItemsKey;
 import com.readrops.db.queries.QueryFilters;
-import com.readrops.db.RoomFactoryWrapper;
 import com.readrops.db.entities.Feed;
+import com.readrops.db.entities.FeedCounters;
 import com.readrops.db.entities.Folder;
 import com.readrops.db.entities.Item;
 import com.readrops.db.entities.account.Account;
 import com.readrops.db.filters.FilterType;
 import com.readrops.db.filters.ListSortType;
+import com.readrops.db.pojo.FolderCounters;
 import com.readrops.db.pojo.ItemWithFeed;
 
 import org.koin.core.parameter.ParametersHolderKt;
@@ -45,6 +49,10 @@ public class MainViewModel extends ViewModel {
 
     private final QueryFilters queryFilters;
 
+    private final MutableLiveData<Integer> countersAccountId = new MutableLiveData<>();
+    private final LiveData<List<FeedCounters>> feedCounters;
+    private final LiveData<List<FolderCounters>> folderCounters;
+
     private Account currentAccount;
     private List<Account> accounts;
 
@@ -55,6 +63,11 @@ public class MainViewModel extends ViewModel {
         queryFilters = new QueryFilters();
         queryFilters.setShowReadItems(SharedPreferencesManager.readBoolean(
                 SharedPreferencesManager.SharedPrefKey.SHOW_READ_ARTICLES));
+
+        feedCounters = Transformations.switchMap(countersAccountId,
+                accountId -> database.feedDao().getFeedCounters(accountId));
+        folderCounters = Transformations.switchMap(countersAccountId,
+                accountId -> database.folderDao().getFolderCounters(accountId));
     }
 
     //region main query
@@ -69,10 +82,10 @@ public class MainViewModel extends ViewModel {
             itemsWithFeed.removeSource(lastFetch);
         }
 
-        DataSource.Factory<Integer, ItemWithFeed> items;
-        items = database.itemDao().selectAll(ItemsQueryBuilder.buildItemsQuery(queryFilters, currentAccount.getConfig().getUseSeparateState()));
+        DataSource.Factory<ItemsKey, ItemWithFeed> items = new ItemsDataSource.Factory(database,
+                queryFilters, currentAccount.getConfig().getUseSeparateState());
 
-        lastFetch = new LivePagedListBuilder<>(new RoomFactoryWrapper<>(items),
+        lastFetch = new LivePagedListBuilder<>(items,
                 new PagedList.Config.Builder()
                         .setPageSize(100)
                         .setPrefetchDistance(150)
@@ -119,6 +132,10 @@ public class MainViewModel extends ViewModel {
         queryFilters.setFilterFolderId(folderId);
     }
 
+    public void setSearchQuery(String searchQuery) {
+        queryFilters.setSearchQuery(searchQuery);
+    }
+
     public MediatorLiveData<PagedList<ItemWithFeed>> getItemsWithFeed() {
         return itemsWithFeed;
     }
@@ -136,6 +153,17 @@ public class MainViewModel extends ViewModel {
         return repository.getFoldersWithFeeds();
     }
 
+    /**
+     * Counters of the current account feeds, updated as items are inserted, read, starred or deleted
+     */
+    public LiveData<List<FeedCounters>> getFeedCounters() {
+        return feedCounters;
+    }
+
+    public LiveData<List<FolderCounters>> getFolderCounters() {
+        return folderCounters;
+    }
+
     //endregion
 
     //region Account
@@ -173,6 +201,7 @@ public class MainViewModel extends ViewModel {
         this.currentAccount = currentAccount;
         setRepository();
         queryFilters.setAccountId(currentAccount.getId());
+        countersAccountId.setValue(currentAccount.getId());
         buildPagedList();
 
         // set the new account as the current one
@@ -204,6 +233,7 @@ public class MainViewModel extends ViewModel {
 
                 setRepository();
                 queryFilters.setAccountId(currentAccount.getId());
+                countersAccountId.setValue(currentAccount.getId());
                 buildPagedList();
                 break;
             }
@@ -11,6 +11,7 @@ import com.readrops.db.entities.account.Account
 import com.readrops.api.services.SyncResult
 import com.readrops.app.utils.GlideRequests
 import com.readrops.app.utils.Utils
+import com.readrops.app.utils.feedscolors.SiteIconCache
 import org.koin.core.component.KoinComponent
 import org.koin.core.component.get
 
@@ -70,9 +71,10 @@ class SyncResultAnalyser(val context: Context, private val syncResults: Map<Acco
             notifContent.title = feed?.name
 
             feed?.iconUrl?.let {
+                // the icon cached locally avoids a download while the sync is running
                 val target = get<GlideRequests>()
                         .asBitmap()
-                        .load(it)
+                        .load(get<SiteIconCache>().getIconFile(feed) ?: it)
                         .diskCacheStrategy(DiskCacheStrategy.ALL)
                         .submit()
 
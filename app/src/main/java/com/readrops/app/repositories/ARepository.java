@@ -1,7 +1,6 @@
 package com.readrops.app.repositories;
 
 import android.content.Context;
-import android.content.Intent;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -12,18 +11,20 @@ import com.readrops.api.utils.AuthInterceptor;
 import com.readrops.app.addfeed.FeedInsertionResult;
 import com.readrops.app.addfeed.ParsingResult;
 import com.readrops.app.utils.feedscolors.FeedColorsKt;
-import com.readrops.app.utils.feedscolors.FeedsColorsIntentService;
+import com.readrops.app.utils.feedscolors.FeedsColorsWorker;
 import com.readrops.db.Database;
 import com.readrops.db.entities.Feed;
 import com.readrops.db.entities.Folder;
 import com.readrops.db.entities.Item;
 import com.readrops.db.entities.ItemState;
 import com.readrops.db.entities.account.Account;
+import com.readrops.db.pojo.FeedWithCounters;
 
 import org.koin.java.KoinJavaComponent;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -32,8 +33,6 @@ import io.reactivex.Completable;
 import io.reactivex.Observable;
 import io.reactivex.Single;
 
-import static com.readrops.app.utils.ReadropsKeys.FEEDS;
-
 public abstract class ARepository {
 
     protected Context context;
@@ -59,6 +58,14 @@ public abstract class ARepository {
 
     public abstract Observable<Feed> sync(List<Feed> feeds);
 
+    /**
+     * Sync only the feeds needing it, used by background synchronizations.
+     * Remote accounts sync everything at once so they just do a full sync.
+     */
+    public Observable<Feed> syncDueFeeds() {
+        return sync(null);
+    }
+
     public abstract Single<List<FeedInsertionResult>> addFeeds(List<ParsingResult> results);
 
     public Completable insertOPMLFoldersAndFeeds(Map<Folder, List<Feed>> foldersAndFeeds) {
@@ -164,26 +171,33 @@ public abstract class ARepository {
     public Single<Map<Folder, List<Feed>>> getFoldersWithFeeds() {
         return Single.create(emitter -> {
             List<Folder> folders = database.folderDao().getFolders(account.getId());
-            Map<Folder, List<Feed>> foldersWithFeeds = new TreeMap<>(Comparator.nullsLast(Folder::compareTo));
-
-            for (Folder folder : folders) {
-                List<Feed> feeds = database.feedDao().getFeedsByFolder(folder.getId());
-
-                for (Feed feed : feeds) {
-                    int unreadCount = database.itemDao().getUnreadCount(feed.getId());
-                    feed.setUnreadCount(unreadCount);
+            Map<Integer, List<Feed>> feedsByFolder = new HashMap<>();
+
+            // unread counts come with the feeds, from their counters
+            for (FeedWithCounters feedWithCounters : database.feedDao().getFeedsWithCounters(account.getId())) {
+                Feed feed = feedWithCounters.getFeed();
+                if (feedWithCounters.getCounters() != null)
+                    feed.setUnreadCount(feedWithCounters.getCounters().getUnreadCount());
+
+                List<Feed> feeds = feedsByFolder.get(feed.getFolderId());
+                if (feeds == null) {
+                    feeds = new ArrayList<>();
+                    feedsByFolder.put(feed.getFolderId(), feeds);
                 }
 
-                foldersWithFeeds.put(folder, feeds);
+                feeds.add(feed);
             }
 
-            // feeds without folder
-            List<Feed> feedsWithoutFolder = database.feedDao().getFeedsWithoutFolder(account.getId());
-            for (Feed feed : feedsWithoutFolder) {
-                feed.setUnreadCount(database.itemDao().getUnreadCount(feed.getId()));
+            Map<Folder, List<Feed>> foldersWithFeeds = new TreeMap<>(Comparator.nullsLast(Folder::compareTo));
+
+            for (Folder folder : folders) {
+                List<Feed> feeds = feedsByFolder.get(folder.getId());
+                foldersWithFeeds.put(folder, feeds != null ? feeds : new ArrayList<>());
             }
 
-            foldersWithFeeds.put(null, feedsWithoutFolder);
+            // feeds without folder
+            List<Feed> feedsWithoutFolder = feedsByFolder.get(null);
+            foldersWithFeeds.put(null, feedsWithoutFolder != null ? feedsWithoutFolder : new ArrayList<>());
 
             emitter.onSuccess(foldersWithFeeds);
         });
@@ -195,11 +209,8 @@ public abstract class ARepository {
                 feed.getTextColor(), feed.getBackgroundColor());
     }
 
-    protected void setFeedsColors(List<Feed> feeds) {
-        Intent intent = new Intent(context, FeedsColorsIntentService.class);
-        intent.putParcelableArrayListExtra(FEEDS, new ArrayList<>(feeds));
-
-        context.startService(intent);
+    protected void setFeedsColors(List<Long> feedIds) {
+        FeedsColorsWorker.enqueue(context, feedIds);
     }
 
     public SyncResult getSyncResult() {
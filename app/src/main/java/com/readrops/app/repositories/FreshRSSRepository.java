@@ -12,7 +12,6 @@ import com.readrops.api.services.freshrss.FreshRSSDataSource;
 import com.readrops.api.services.freshrss.FreshRSSSyncData;
 import com.readrops.app.addfeed.FeedInsertionResult;
 import com.readrops.app.addfeed.ParsingResult;
-import com.readrops.app.utils.Utils;
 import com.readrops.db.Database;
 import com.readrops.db.entities.Feed;
 import com.readrops.db.entities.Folder;
@@ -222,7 +221,7 @@ public class FreshRSSRepository extends ARepository {
         List<Long> insertedFeedsIds = database.feedDao().feedsUpsert(freshRSSFeeds, account);
 
         if (!insertedFeedsIds.isEmpty()) {
-            setFeedsColors(database.feedDao().selectFromIdList(insertedFeedsIds));
+            setFeedsColors(insertedFeedsIds);
         }
 
     }
@@ -247,10 +246,6 @@ public class FreshRSSRepository extends ARepository {
             }
 
             item.setFeedId(feedId);
-            if (item.getText() != null) {
-                item.setReadTime(Utils.readTimeFromString(item.getText()));
-            }
-
 
             // workaround to avoid inserting starred items coming from the main item call
             // as the API exclusion filter doesn't seem to work
@@ -265,7 +260,7 @@ public class FreshRSSRepository extends ARepository {
 
         if (!itemsToInsert.isEmpty()) {
             Collections.sort(itemsToInsert, Item::compareTo);
-            database.itemDao().insert(itemsToInsert);
+            database.itemDao().insertNewItems(itemsToInsert);
         }
     }
 
@@ -7,7 +7,13 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.readrops.api.localfeed.FeedRefreshScheduler;
+import com.readrops.api.localfeed.FetchBackoff;
+import com.readrops.api.localfeed.HostCircuitBreaker;
+import com.readrops.api.localfeed.LocalFeedDispatcher;
 import com.readrops.api.localfeed.LocalRSSDataSource;
+import com.readrops.api.localfeed.StoppableItemSink;
+import com.readrops.api.localfeed.XmlParserEngine;
 import com.readrops.api.services.SyncResult;
 import com.readrops.api.utils.ApiUtils;
 import com.readrops.api.utils.exceptions.ParseException;
@@ -15,24 +21,27 @@ import com.readrops.api.utils.exceptions.UnknownFormatException;
 import com.readrops.app.addfeed.FeedInsertionResult;
 import com.readrops.app.addfeed.ParsingResult;
 import com.readrops.app.utils.SharedPreferencesManager;
-import com.readrops.app.utils.Utils;
 import com.readrops.db.Database;
 import com.readrops.db.entities.Feed;
 import com.readrops.db.entities.Item;
 import com.readrops.db.entities.account.Account;
 
-import org.jsoup.Jsoup;
+import org.joda.time.LocalDateTime;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
 
 import io.reactivex.Completable;
 import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
 import io.reactivex.Single;
-import kotlin.Pair;
+import kotlin.Unit;
 import okhttp3.Headers;
 
 public class LocalFeedRepository extends ARepository {
@@ -40,12 +49,15 @@ public class LocalFeedRepository extends ARepository {
     private static final String TAG = LocalFeedRepository.class.getSimpleName();
 
     private LocalRSSDataSource dataSource;
+    private LocalFeedDispatcher dispatcher;
 
-    public LocalFeedRepository(LocalRSSDataSource dataSource, Database database, @NonNull Context context, @Nullable Account account) {
+    public LocalFeedRepository(LocalRSSDataSource dataSource, LocalFeedDispatcher dispatcher, Database database,
+                               @NonNull Context context, @Nullable Account account) {
         super(database, context, account);
 
         syncResult = new SyncResult();
         this.dataSource = dataSource;
+        this.dispatcher = dispatcher;
     }
 
     @Override
@@ -55,6 +67,14 @@ public class LocalFeedRepository extends ARepository {
 
     @Override
     public Observable<Feed> sync(@Nullable List<Feed> feeds) {
+        return sync(feeds, false);
+    }
+
+    /**
+     * @param scheduled true for a background sync, only a user sync queries failing feeds and hosts
+     *                  before their retry time
+     */
+    private Observable<Feed> sync(@Nullable List<Feed> feeds, boolean scheduled) {
         return Observable.create(emitter -> {
             List<Feed> feedList;
 
@@ -64,8 +84,27 @@ public class LocalFeedRepository extends ARepository {
                 feedList = feeds;
             }
 
-            for (Feed feed : feedList) {
-                emitter.onNext(feed);
+            // feeds are fetched concurrently, the emitter must be serialized
+            ObservableEmitter<Feed> serializedEmitter = emitter.serialize();
+            HostCircuitBreaker circuitBreaker = new HostCircuitBreaker(HostCircuitBreaker.DEFAULT_FAILURE_THRESHOLD,
+                    database.hostFailureDao().getHostFailures());
+            XmlParserEngine xmlParserEngine = getXmlParserEngine();
+            long now = System.currentTimeMillis();
+
+            dispatcher.dispatch(feedList, feed -> {
+                // failing feeds are skipped until their retry time
+                if (serializedEmitter.isDisposed() || (scheduled && feed.getRetryAfter() > now)) {
+                    return Unit.INSTANCE;
+                }
+
+                // the feed itself didn't fail, it stays due and is retried by the next sync
+                String host = LocalFeedDispatcher.hostOf(feed);
+                Long hostRetryAfter = circuitBreaker.getRetryAfter(host);
+                if (scheduled && hostRetryAfter != null && hostRetryAfter > now) {
+                    return Unit.INSTANCE;
+                }
+
+                serializedEmitter.onNext(feed);
 
                 try {
                     Headers.Builder headers = new Headers.Builder();
@@ -76,17 +115,49 @@ public class LocalFeedRepository extends ARepository {
                         headers.add(ApiUtils.IF_MODIFIED_HEADER, feed.getLastModified());
                     }
 
-                    Pair<Feed, List<Item>> pair = dataSource.queryRSSResource(feed.getUrl(), headers.build());
+                    // the feed interval overrides the account one. A feed never synced is always queried,
+                    // the response cached when adding it doesn't mean its items have been inserted
+                    int minRefreshInterval = 0;
+                    if (feed.getNextRefresh() > 0) {
+                        minRefreshInterval = feed.getMinRefreshInterval() != null ?
+                                feed.getMinRefreshInterval() : account.getMinRefreshInterval();
+                    }
+
+                    NewItemsSink sink = new NewItemsSink(feed);
+                    Feed parsedFeed = dataSource.queryRSSResource(feed.getUrl(), headers.build(), sink,
+                            feed.getBodyDigest(), minRefreshInterval, xmlParserEngine);
 
-                    if (pair != null) {
-                        insertNewItems(feed, pair.getSecond());
+                    if (parsedFeed != null) {
+                        sink.finish();
+                        // saved once the items are inserted, a failed insertion must not mark the feed as up to date
+                        database.feedDao().updateHeaders(parsedFeed.getEtag(), parsedFeed.getLastModified(),
+                                parsedFeed.getBodyDigest(), feed.getId());
                     }
+
+                    recordHostSuccess(host, circuitBreaker);
+                    if (feed.getFailureCount() > 0) {
+                        database.feedDao().updateFailureState(feed.getId(), 0, 0);
+                    }
+
+                    scheduleNextRefresh(feed, sink.getNewItemsCount() > 0);
                 } catch (Exception e) {
                     Log.d(TAG, "sync: " + e.getMessage());
+                    onFetchFailure(feed, host, e, circuitBreaker);
                 }
-            }
 
-            emitter.onComplete();
+                return Unit.INSTANCE;
+            });
+
+            serializedEmitter.onComplete();
+        });
+    }
+
+    @Override
+    public Observable<Feed> syncDueFeeds() {
+        return Observable.defer(() -> {
+            List<Feed> dueFeeds = database.feedDao().getDueFeeds(account.getId(), System.currentTimeMillis());
+
+            return dueFeeds.isEmpty() ? Observable.empty() : sync(dueFeeds, true);
         });
     }
 
@@ -94,14 +165,16 @@ public class LocalFeedRepository extends ARepository {
     public Single<List<FeedInsertionResult>> addFeeds(List<ParsingResult> results) {
         return Single.create(emitter -> {
             List<FeedInsertionResult> insertionResults = new ArrayList<>();
+            XmlParserEngine xmlParserEngine = getXmlParserEngine();
 
             for (ParsingResult parsingResult : results) {
                 FeedInsertionResult insertionResult = new FeedInsertionResult();
 
                 try {
-                    Pair<Feed, List<Item>> pair = dataSource.queryRSSResource(parsingResult.getUrl(),
-                            null);
-                    Feed feed = insertFeed(pair.getFirst(), parsingResult);
+                    // items are not needed here, they will be inserted by the next sync
+                    Feed parsedFeed = dataSource.queryRSSResource(parsingResult.getUrl(), null, item -> { }, null, 0,
+                            xmlParserEngine);
+                    Feed feed = insertFeed(parsedFeed, parsingResult);
 
                     if (feed != null) {
                         insertionResult.setFeed(feed);
@@ -128,22 +201,6 @@ public class LocalFeedRepository extends ARepository {
         });
     }
 
-    @SuppressWarnings("SimplifyStreamApiCallChains")
-    private void insertNewItems(Feed feed, List<Item> items) {
-        database.feedDao().updateHeaders(feed.getEtag(), feed.getLastModified(), feed.getId());
-
-        Collections.sort(items, Item::compareTo);
-
-        int maxItems = Integer.parseInt(SharedPreferencesManager.readString(
-                SharedPreferencesManager.SharedPrefKey.ITEMS_TO_PARSE_MAX_NB));
-        if (maxItems > 0 && items.size() > maxItems) {
-            items = items.subList(items.size() - maxItems, items.size());
-        }
-
-        items.stream().forEach(item -> item.setFeedId(feed.getId()));
-        insertItems(items, feed);
-    }
-
     private Feed insertFeed(Feed feed, ParsingResult parsingResult) {
         feed.setFolderId(parsingResult.getFolderId());
 
@@ -151,37 +208,181 @@ public class LocalFeedRepository extends ARepository {
             return null; // feed already inserted
         }
 
+        // the page the feed was found in has already given its icon, it doesn't need to be downloaded again
+        if (feed.getIconUrl() == null) {
+            feed.setIconUrl(parsingResult.getIconUrl());
+        }
+
         setFeedColors(feed);
         feed.setAccountId(account.getId());
 
         // we need empty headers to query the feed just after, without any 304 result
         feed.setEtag(null);
         feed.setLastModified(null);
+        feed.setBodyDigest(null);
 
         feed.setId((int) (database.feedDao().compatInsert(feed)));
         return feed;
     }
 
-    private void insertItems(Collection<Item> items, Feed feed) {
-        List<Item> itemsToInsert = new ArrayList<>();
+    /**
+     * Read on each sync, so a change of the setting applies to the next one
+     */
+    private XmlParserEngine getXmlParserEngine() {
+        return XmlParserEngine.valueOf(SharedPreferencesManager.readString(
+                SharedPreferencesManager.SharedPrefKey.XML_PARSER_ENGINE));
+    }
+
+    private void onFetchFailure(Feed feed, String host, Exception e, HostCircuitBreaker circuitBreaker) {
+        int failureCount = feed.getFailureCount() + 1;
+        long retryAfter = FetchBackoff.retryAfter(failureCount, System.currentTimeMillis());
+
+        database.feedDao().updateFailureState(feed.getId(), failureCount, retryAfter);
+
+        if (FetchBackoff.isHostFailure(e)) {
+            // stored under the breaker lock so concurrent feeds of the host are stored in order
+            synchronized (circuitBreaker) {
+                database.hostFailureDao().upsert(circuitBreaker.recordFailure(host, retryAfter));
+            }
+        }
+    }
+
+    private void recordHostSuccess(String host, HostCircuitBreaker circuitBreaker) {
+        synchronized (circuitBreaker) {
+            if (circuitBreaker.recordSuccess(host)) {
+                database.hostFailureDao().delete(host);
+            }
+        }
+    }
+
+    private void scheduleNextRefresh(Feed feed, boolean newItems) {
+        List<Long> pubDates = database.itemDao().getLatestPubDates(feed.getId(), FeedRefreshScheduler.PUB_DATES_COUNT);
+        long nextRefresh = FeedRefreshScheduler.nextRefresh(pubDates, newItems, System.currentTimeMillis());
+
+        database.feedDao().updateNextRefresh(feed.getId(), nextRefresh);
+    }
+
+    /**
+     * @return the number of items actually inserted, items already known being ignored
+     */
+    private int insertItems(List<Item> items) {
+        List<Item> newItems = database.itemDao().insertNewItems(items);
+
+        // several feeds can be inserted at the same time
+        synchronized (syncResult) {
+            syncResult.getItems().addAll(newItems);
+        }
+
+        return newItems.size();
+    }
+
+    /**
+     * Receives the items of a feed while it is being parsed.
+     * Without any item limit, new items are inserted by batches so the whole feed is never kept in memory.
+     * Otherwise, only the newest items are kept and inserted once the feed has been entirely parsed.
+     * <p>
+     * As long as the feed lists its items from the newest to the oldest, the parsing is stopped
+     * once the item limit is reached or after {@link #KNOWN_ITEMS_BEFORE_STOP} already known items in a row,
+     * as the remaining items are older ones which would be dropped or are already known.
+     * A feed not ordered this way is always entirely parsed.
+     * <p>
+     * The guids of the feed items are loaded once to detect known items, the database ignoring
+     * at insertion any item it already has. Items not newer than the last pruned one are known too.
+     */
+    private class NewItemsSink implements StoppableItemSink {
+
+        private static final int BATCH_SIZE = 50;
+        private static final int KNOWN_ITEMS_BEFORE_STOP = 5;
+
+        private final Feed feed;
+        private final int maxItems;
+
+        private final List<Item> batch = new ArrayList<>();
+        private final PriorityQueue<Item> newestItems;
+        private final Set<Item> knownItems = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Set<String> knownGuids;
+
+        private int parsedItems = 0;
+        private int newItemsCount = 0;
+        private int knownItemsInARow = 0;
+        private boolean newestFirst = true;
+        private LocalDateTime lastPubDate = null;
+
+        NewItemsSink(Feed feed) {
+            this.feed = feed;
+            maxItems = Integer.parseInt(SharedPreferencesManager.readString(
+                    SharedPreferencesManager.SharedPrefKey.ITEMS_TO_PARSE_MAX_NB));
+            newestItems = maxItems > 0 ? new PriorityQueue<>(maxItems + 1, Item::compareTo) : null;
+            knownGuids = new HashSet<>(database.itemDao().getGuids(feed.getId()));
+        }
+
+        @Override
+        public void accept(@NonNull Item item) {
+            item.setFeedId(feed.getId());
+            parsedItems++;
 
-        for (Item dbItem : items) {
-            if (!database.itemDao().itemExists(dbItem.getGuid(), feed.getAccountId())) {
-                if (dbItem.getDescription() != null) {
-                    dbItem.setCleanDescription(Jsoup.parse(dbItem.getDescription()).text());
+            if (lastPubDate != null && item.getPubDate().isAfter(lastPubDate)) {
+                newestFirst = false;
+            }
+            lastPubDate = item.getPubDate();
+
+            // pruned items are considered as known so they are not inserted again
+            boolean known = knownGuids.contains(item.getGuid())
+                    || item.getPubDate().toDateTime().getMillis() <= feed.getPrunedUntil();
+            knownItemsInARow = known ? knownItemsInARow + 1 : 0;
+
+            if (maxItems > 0) {
+                // known items are kept as they still count in the item limit
+                newestItems.add(item);
+                if (known) {
+                    knownItems.add(item);
+                }
+
+                if (newestItems.size() > maxItems) {
+                    knownItems.remove(newestItems.poll()); // drop the oldest item
+                }
+            } else if (!known) {
+                batch.add(item);
+
+                if (batch.size() >= BATCH_SIZE) {
+                    flush();
                 }
+            }
+        }
+
+        @Override
+        public boolean isSatisfied() {
+            return newestFirst && ((maxItems > 0 && parsedItems >= maxItems)
+                    || knownItemsInARow >= KNOWN_ITEMS_BEFORE_STOP);
+        }
 
-                if (dbItem.getContent() != null) {
-                    dbItem.setReadTime(Utils.readTimeFromString(dbItem.getContent()));
-                } else if (dbItem.getDescription() != null) {
-                    dbItem.setReadTime(Utils.readTimeFromString(dbItem.getCleanDescription()));
+        void finish() {
+            if (maxItems > 0) {
+                for (Item item : newestItems) {
+                    if (!knownItems.contains(item)) {
+                        batch.add(item);
+                    }
                 }
 
-                itemsToInsert.add(dbItem);
+                newestItems.clear();
+                knownItems.clear();
             }
+
+            flush();
+        }
+
+        int getNewItemsCount() {
+            return newItemsCount;
         }
 
-        syncResult.getItems().addAll(itemsToInsert);
-        database.itemDao().insert(itemsToInsert);
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            Collections.sort(batch, Item::compareTo);
+            newItemsCount += insertItems(batch);
+            batch.clear();
+        }
     }
 }
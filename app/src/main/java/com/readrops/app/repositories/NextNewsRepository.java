@@ -15,7 +15,6 @@ import com.readrops.api.services.nextcloudnews.NextNewsSyncData;
 import com.readrops.api.utils.exceptions.UnknownFormatException;
 import com.readrops.app.addfeed.FeedInsertionResult;
 import com.readrops.app.addfeed.ParsingResult;
-import com.readrops.app.utils.Utils;
 import com.readrops.db.Database;
 import com.readrops.db.entities.Feed;
 import com.readrops.db.entities.Folder;
@@ -311,7 +310,7 @@ public class NextNewsRepository extends ARepository {
         List<Feed> insertedFeeds = new ArrayList<>();
         if (!insertedFeedsIds.isEmpty()) {
             insertedFeeds.addAll(database.feedDao().selectFromIdList(insertedFeedsIds));
-            setFeedsColors(insertedFeeds);
+            setFeedsColors(insertedFeedsIds);
         }
 
         return insertedFeeds;
@@ -338,16 +337,13 @@ public class NextNewsRepository extends ARepository {
             }
 
             item.setFeedId(feedId);
-            item.setReadTime(Utils.readTimeFromString(item.getContent()));
 
             itemsToInsert.add(item);
         }
 
         if (!itemsToInsert.isEmpty()) {
-            syncResult.setItems(itemsToInsert);
-
             Collections.sort(itemsToInsert, Item::compareTo);
-            database.itemDao().insert(itemsToInsert);
+            syncResult.setItems(database.itemDao().insertNewItems(itemsToInsert));
         }
     }
 }
@@ -17,8 +17,10 @@ import androidx.annotation.Nullable;
 import androidx.core.app.NotificationCompat;
 import androidx.core.app.NotificationManagerCompat;
 import androidx.fragment.app.Fragment;
+import androidx.preference.ListPreference;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceFragmentCompat;
+import androidx.preference.SwitchPreferenceCompat;
 
 import com.afollestad.materialdialogs.MaterialDialog;
 import com.readrops.app.utils.OPMLHelper;
@@ -138,6 +140,67 @@ public class AccountSettingsFragment extends PreferenceFragmentCompat {
             startActivity(intent);
             return true;
         });
+
+        setupRetentionPreferences();
+        setupMinRefreshIntervalPreference();
+    }
+
+    private void setupMinRefreshIntervalPreference() {
+        ListPreference minRefreshIntervalPref = findPreference("min_refresh_interval");
+
+        // remote accounts sync all their feeds at once
+        if (!account.is(AccountType.LOCAL)) {
+            minRefreshIntervalPref.setVisible(false);
+            return;
+        }
+
+        minRefreshIntervalPref.setValue(String.valueOf(account.getMinRefreshInterval()));
+        minRefreshIntervalPref.setOnPreferenceChangeListener((preference, newValue) -> {
+            account.setMinRefreshInterval(Integer.parseInt((String) newValue));
+
+            viewModel.updateMinRefreshInterval(account)
+                    .subscribeOn(Schedulers.io())
+                    .observeOn(AndroidSchedulers.mainThread())
+                    .doOnError(e -> Utils.showSnackbar(getView(), e.getMessage()))
+                    .subscribe();
+            return true;
+        });
+    }
+
+    private void setupRetentionPreferences() {
+        ListPreference maxAgePref = findPreference("retention_max_age");
+        ListPreference maxItemsPref = findPreference("retention_max_items");
+        SwitchPreferenceCompat keepStarredPref = findPreference("retention_keep_starred");
+
+        maxAgePref.setValue(String.valueOf(account.getRetentionMaxAge()));
+        maxItemsPref.setValue(String.valueOf(account.getRetentionMaxItems()));
+        keepStarredPref.setChecked(account.isRetentionKeepStarred());
+
+        maxAgePref.setOnPreferenceChangeListener((preference, newValue) -> {
+            account.setRetentionMaxAge(Integer.parseInt((String) newValue));
+            updateRetentionPolicy();
+            return true;
+        });
+
+        maxItemsPref.setOnPreferenceChangeListener((preference, newValue) -> {
+            account.setRetentionMaxItems(Integer.parseInt((String) newValue));
+            updateRetentionPolicy();
+            return true;
+        });
+
+        keepStarredPref.setOnPreferenceChangeListener((preference, newValue) -> {
+            account.setRetentionKeepStarred((Boolean) newValue);
+            updateRetentionPolicy();
+            return true;
+        });
+    }
+
+    private void updateRetentionPolicy() {
+        viewModel.updateRetentionPolicy(account)
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .doOnError(e -> Utils.showSnackbar(getView(), e.getMessage()))
+                .subscribe();
     }
 
     @Override
@@ -1,6 +1,5 @@
 package com.readrops.app.settings;
 
-import android.content.Intent;
 import android.os.Bundle;
 import android.util.Pair;
 
@@ -16,16 +15,9 @@ import androidx.work.WorkManager;
 
 import com.readrops.app.R;
 import com.readrops.app.notifications.sync.SyncWorker;
-import com.readrops.app.utils.feedscolors.FeedsColorsIntentService;
-import com.readrops.db.Database;
+import com.readrops.app.utils.feedscolors.FeedsColorsWorker;
 
-import org.koin.java.KoinJavaComponent;
-
-import java.util.ArrayList;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
-
-import static com.readrops.app.utils.ReadropsKeys.FEEDS;
 
 public class SettingsFragment extends PreferenceFragmentCompat {
 
@@ -38,19 +30,8 @@ public class SettingsFragment extends PreferenceFragmentCompat {
         Preference synchroPreference = findPreference("auto_synchro");
 
 
-        AtomicBoolean serviceStarted = new AtomicBoolean(false);
         feedsColorsPreference.setOnPreferenceClickListener(preference -> {
-            Database database = KoinJavaComponent.get(Database.class);
-
-            database.feedDao().getAllFeeds().observe(getActivity(), feeds -> {
-                if (!serviceStarted.get()) {
-                    Intent intent = new Intent(getContext(), FeedsColorsIntentService.class);
-                    intent.putParcelableArrayListExtra(FEEDS, new ArrayList<>(feeds));
-
-                    getContext().startService(intent);
-                    serviceStarted.set(true);
-                }
-            });
+            FeedsColorsWorker.enqueue(getContext());
 
             return true;
         });
@@ -5,24 +5,26 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import com.readrops.api.localfeed.LocalRSSHelper;
 import com.readrops.api.utils.ApiUtils;
 import com.readrops.api.utils.AuthInterceptor;
+import com.readrops.api.utils.HtmlHeadLinks;
+import com.readrops.api.utils.HtmlHeadScanner;
 import com.readrops.app.addfeed.ParsingResult;
 
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 import org.koin.java.KoinJavaComponent;
 
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
 
 public final class HtmlParser {
 
@@ -32,57 +34,41 @@ public final class HtmlParser {
      * Parse the html page to get all rss urls
      *
      * @param url url to request
-     * @return a list of rss urls with their title
+     * @return a list of rss urls with their title and the page icon url
      */
     public static List<ParsingResult> getFeedLink(String url) {
-        List<ParsingResult> results = new ArrayList<>();
-
-        String head = getHTMLHeadFromUrl(url);
-        if (head != null) {
-            Document document = Jsoup.parse(head, url);
-
-            Elements elements = document.select("link");
-
-            for (Element element : elements) {
-                String type = element.attributes().get("type");
-
-                if (LocalRSSHelper.isRSSType(type)) {
-                    String feedUrl = element.absUrl("href");
-                    String label = element.attributes().get("title");
+        HtmlHeadLinks headLinks = getHeadLinks(url);
+        if (headLinks == null) {
+            return Collections.emptyList();
+        }
 
-                    results.add(new ParsingResult(feedUrl, label));
-                }
-            }
+        List<ParsingResult> results = new ArrayList<>();
+        for (HtmlHeadLinks.FeedLink feedLink : headLinks.getFeedLinks()) {
+            ParsingResult parsingResult = new ParsingResult(feedLink.getUrl(), feedLink.getTitle());
+            parsingResult.setIconUrl(headLinks.getIconUrl());
 
-            return results;
-        } else {
-            return Collections.emptyList();
+            results.add(parsingResult);
         }
+
+        return results;
     }
 
     @Nullable
     public static String getFaviconLink(@NonNull String url) {
-        String favUrl = null;
-
-        String head = getHTMLHeadFromUrl(url);
-        if (head == null)
-            return null;
-
-        Document document = Jsoup.parse(head, url);
-        Elements elements = document.select("link");
+        HtmlHeadLinks headLinks = getHeadLinks(url);
 
-        for (Element element : elements) {
-            if (element.attributes().get("rel").toLowerCase().contains("icon")) {
-                favUrl = element.absUrl("href");
-                break;
-            }
-        }
-
-        return favUrl;
+        return headLinks != null ? headLinks.getIconUrl() : null;
     }
 
+    /**
+     * Scan the head of the html page to get its feed links and its icon link in a single pass,
+     * the page is only downloaded until the end of its head
+     *
+     * @param url url to request
+     * @return the head links or null if the page couldn't be fetched or isn't an html page
+     */
     @Nullable
-    private static String getHTMLHeadFromUrl(@NonNull String url) {
+    public static HtmlHeadLinks getHeadLinks(@NonNull String url) {
         long start = System.currentTimeMillis();
 
         try {
@@ -90,21 +76,27 @@ public final class HtmlParser {
                     .newCall(new Request.Builder().url(url).build()).execute();
             KoinJavaComponent.<AuthInterceptor>get(AuthInterceptor.class).setCredentials(null);
 
-            if (response.header("Content-Type").contains(ApiUtils.HTML_CONTENT_TYPE)) {
-                String body = response.body().string();
-                String head = body.substring(body.indexOf("<head"), body.indexOf("</head>"));
+            try (ResponseBody body = response.body()) {
+                String contentType = response.header("Content-Type");
+
+                if (contentType != null && contentType.contains(ApiUtils.HTML_CONTENT_TYPE)) {
+                    MediaType mediaType = body.contentType();
+                    Charset charset = mediaType != null ? mediaType.charset(StandardCharsets.UTF_8) : StandardCharsets.UTF_8;
 
-                long end = System.currentTimeMillis();
-                Log.d(TAG, "parsing time : " + (end - start));
+                    HtmlHeadLinks headLinks = new HtmlHeadScanner(HtmlHeadScanner.DEFAULT_MAX_CHARS)
+                            .scan(new InputStreamReader(body.byteStream(), charset), response.request().url());
 
-                return head;
-            } else {
-                return null;
+                    long end = System.currentTimeMillis();
+                    Log.d(TAG, "parsing time : " + (end - start));
+
+                    return headLinks;
+                } else {
+                    return null;
+                }
             }
         } catch (Exception e) {
             Log.d(TAG, e.getMessage());
             return null;
         }
-
     }
 }
@@ -4,6 +4,8 @@ import android.content.SharedPreferences;
 
 import androidx.annotation.NonNull;
 
+import com.readrops.api.localfeed.XmlParserEngine;
+
 import org.koin.java.KoinJavaComponent;
 
 public final class SharedPreferencesManager {
@@ -55,6 +57,7 @@ public final class SharedPreferencesManager {
     public enum SharedPrefKey {
         SHOW_READ_ARTICLES("show_read_articles", false),
         ITEMS_TO_PARSE_MAX_NB("items_to_parse_max_nb", "20"),
+        XML_PARSER_ENGINE("xml_parser_engine", XmlParserEngine.DEFAULT.name()),
         OPEN_ITEMS_IN("open_items_in", "0"),
         DARK_THEME("dark_theme", "false"),
         AUTO_SYNCHRO("auto_synchro", "0");
@@ -18,7 +18,6 @@ import com.google.android.material.snackbar.Snackbar;
 
 import org.koin.java.KoinJavaComponent;
 
-import java.io.InputStream;
 import java.util.Locale;
 
 import okhttp3.OkHttpClient;
@@ -31,28 +30,43 @@ public final class Utils {
 
     public static final String HTTPS_PREFIX = "https://";
 
-    private static final int AVERAGE_WORDS_PER_MINUTE = 250;
+    /**
+     * Download an image and decode it downsampled, keeping both its dimensions at least as big as reqSize
+     */
+    public static Bitmap getImageFromUrl(String url, int reqSize) {
+        Request request = new Request.Builder().url(url).build();
 
-    public static Bitmap getImageFromUrl(String url) {
-        try {
-            Request request = new Request.Builder().url(url).build();
+        try (Response response = KoinJavaComponent.<OkHttpClient>get(OkHttpClient.class).newCall(request).execute()) {
+            if (!response.isSuccessful())
+                return null;
 
-            Response response = KoinJavaComponent.<OkHttpClient>get(OkHttpClient.class).newCall(request).execute();
+            // the image is kept in memory to be decoded twice, first only its bounds
+            byte[] bytes = response.body().bytes();
 
-            if (response.isSuccessful()) {
-                InputStream inputStream = response.body().byteStream();
-                return BitmapFactory.decodeStream(inputStream);
-            } else
-                return null;
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+
+            options.inSampleSize = getInSampleSize(options.outWidth, options.outHeight, reqSize);
+            options.inJustDecodeBounds = false;
+
+            return BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
         } catch (Exception e) {
             return null; // no way to get the favicon
         }
     }
 
-    public static double readTimeFromString(String value) {
-        int nbWords = value.split("\\s+").length;
+    /**
+     * @return the biggest power of two dividing both width and height while keeping them at least as big as reqSize
+     */
+    public static int getInSampleSize(int width, int height, int reqSize) {
+        int inSampleSize = 1;
+
+        while (width / (inSampleSize * 2) >= reqSize && height / (inSampleSize * 2) >= reqSize) {
+            inSampleSize *= 2;
+        }
 
-        return (double) nbWords / AVERAGE_WORDS_PER_MINUTE;
+        return inSampleSize;
     }
 
     public static String getCssColor(@ColorInt int color) {
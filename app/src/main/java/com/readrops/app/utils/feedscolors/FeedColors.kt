@@ -4,12 +4,27 @@ import androidx.palette.graphics.Palette
 import com.readrops.app.utils.HtmlParser
 import com.readrops.app.utils.Utils
 import com.readrops.db.entities.Feed
+import org.koin.java.KoinJavaComponent
+
+/**
+ * @param useCache false to compute the colors again even if the feed's site icon is cached
+ */
+@JvmOverloads
+fun setFeedColors(feed: Feed, useCache: Boolean = true) {
+    val siteIconCache = KoinJavaComponent.get<SiteIconCache>(SiteIconCache::class.java)
+
+    val siteIcon = if (useCache) siteIconCache.get(feed) else null
+    if (siteIcon != null) {
+        feed.iconUrl = siteIcon.iconUrl
+        feed.textColor = siteIcon.textColor
+        feed.backgroundColor = siteIcon.backgroundColor
+        return
+    }
 
-fun setFeedColors(feed: Feed) {
     getFaviconLink(feed)
 
-    if (feed.iconUrl != null) {
-        val bitmap = Utils.getImageFromUrl(feed.iconUrl) ?: return
+    val bitmap = feed.iconUrl?.let { Utils.getImageFromUrl(it, SiteIconCache.ICON_SIZE) }
+    if (bitmap != null) {
         val palette = Palette.from(bitmap).generate()
 
         val dominantSwatch = palette.dominantSwatch
@@ -25,14 +40,14 @@ fun setFeedColors(feed: Feed) {
             mutedSwatch.rgb
         } else 0
     }
+
+    // an icon which couldn't be downloaded is not cached, the failure might only be temporary
+    if (bitmap != null || feed.iconUrl == null) siteIconCache.put(feed, bitmap)
 }
 
 fun getFaviconLink(feed: Feed) {
     feed.iconUrl = if (feed.iconUrl != null)
         feed.iconUrl
     else
-        HtmlParser.getFaviconLink(feed.siteUrl!!)
+        feed.siteUrl?.let { HtmlParser.getFaviconLink(it) }
 }
-
-
-
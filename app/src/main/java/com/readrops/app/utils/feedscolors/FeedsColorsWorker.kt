@@ -0,0 +1,130 @@
+package com.readrops.app.utils.feedscolors
+
+import android.content.Context
+import android.util.Log
+import androidx.core.app.NotificationCompat
+import androidx.core.app.NotificationManagerCompat
+import androidx.work.Data
+import androidx.work.ExistingWorkPolicy
+import androidx.work.ForegroundInfo
+import androidx.work.OneTimeWorkRequest
+import androidx.work.WorkManager
+import androidx.work.Worker
+import androidx.work.WorkerParameters
+import androidx.work.workDataOf
+import com.readrops.api.localfeed.LocalFeedDispatcher
+import com.readrops.app.R
+import com.readrops.app.ReadropsApp
+import com.readrops.db.Database
+import com.readrops.db.entities.Feed
+import org.koin.core.component.KoinComponent
+import org.koin.core.component.get
+
+/**
+ * Computes the colors of the given feeds, or reloads the colors of all the feeds if none is given.
+ * Icons are processed concurrently, but never two of the same host at once so the second one
+ * can take advantage of the site icon cache.
+ */
+class FeedsColorsWorker(context: Context, parameters: WorkerParameters) : Worker(context, parameters), KoinComponent {
+
+    private val database = get<Database>()
+
+    private val notificationManager = NotificationManagerCompat.from(applicationContext)
+    private val notificationBuilder = NotificationCompat.Builder(applicationContext, ReadropsApp.FEEDS_COLORS_CHANNEL_ID)
+            .setContentTitle(applicationContext.getString(R.string.get_feeds_colors))
+            .setSmallIcon(R.drawable.ic_notif)
+            .setOnlyAlertOnce(true)
+
+    private val processedFeeds = mutableListOf<Feed>()
+    private var processedCount = 0
+
+    override fun doWork(): Result {
+        val feedIds = inputData.getLongArray(FEED_IDS)
+        val feeds = if (feedIds != null) database.feedDao().selectFromIdList(feedIds.toList())
+        else database.feedDao().selectAll()
+
+        if (feeds.isEmpty()) return Result.success()
+
+        notificationBuilder.setProgress(feeds.size, 0, false)
+        setForegroundAsync(ForegroundInfo(NOTIFICATION_ID, notificationBuilder.build()))
+
+        return try {
+            LocalFeedDispatcher(PARALLELISM, 1).dispatch(feeds) { feed ->
+                try {
+                    setFeedColors(feed, useCache = feedIds != null)
+                } catch (e: Exception) {
+                    Log.e(TAG, "Unable to get ${feed.url} colors", e)
+                }
+
+                onFeedProcessed(feed, feeds.size)
+            }
+
+            flush()
+            Result.success()
+        } catch (e: InterruptedException) {
+            // colors already computed are kept
+            flush()
+            Result.failure()
+        } finally {
+            notificationManager.cancel(NOTIFICATION_ID)
+        }
+    }
+
+    private fun onFeedProcessed(feed: Feed, total: Int) = synchronized(processedFeeds) {
+        processedFeeds += feed
+        processedCount++
+
+        if (processedFeeds.size >= BATCH_SIZE) flush()
+
+        notificationBuilder.setContentText(feed.name)
+                .setProgress(total, processedCount, false)
+        notificationManager.notify(NOTIFICATION_ID, notificationBuilder.build())
+    }
+
+    private fun flush() = synchronized(processedFeeds) {
+        if (processedFeeds.isNotEmpty()) {
+            database.feedDao().updateColors(processedFeeds.toList())
+            processedFeeds.clear()
+        }
+    }
+
+    companion object {
+        val TAG: String = FeedsColorsWorker::class.java.simpleName
+
+        const val FEED_IDS = "FEED_IDS"
+
+        private const val NOTIFICATION_ID = 1
+
+        private const val PARALLELISM = 4
+
+        private const val BATCH_SIZE = 50
+
+        // keeps input data under WorkManager's size limit and queries under SQLite's variables limit
+        private const val MAX_FEED_IDS = 500
+
+        /**
+         * Enqueue the color extraction of [feedIds], or of all the feeds without using the site icon cache if null.
+         * Requests are chained so they never run at the same time.
+         */
+        @JvmStatic
+        @JvmOverloads
+        fun enqueue(context: Context, feedIds: List<Long>? = null) {
+            val requests = feedIds?.chunked(MAX_FEED_IDS)
+                    ?.map { buildRequest(workDataOf(FEED_IDS to it.toLongArray())) }
+                    ?: listOf(buildRequest(workDataOf()))
+
+            if (requests.isEmpty()) return
+
+            var continuation = WorkManager.getInstance(context)
+                    .beginUniqueWork(TAG, ExistingWorkPolicy.APPEND_OR_REPLACE, requests.first())
+
+            requests.drop(1).forEach { continuation = continuation.then(it) }
+            continuation.enqueue()
+        }
+
+        private fun buildRequest(data: Data) = OneTimeWorkRequest.Builder(FeedsColorsWorker::class.java)
+                .setInputData(data)
+                .addTag(TAG)
+                .build()
+    }
+}
@@ -0,0 +1,89 @@
+package com.readrops.app.utils.feedscolors
+
+import android.graphics.Bitmap
+import androidx.annotation.WorkerThread
+import com.readrops.db.Database
+import com.readrops.db.entities.Feed
+import com.readrops.db.entities.SiteIcon
+import okhttp3.HttpUrl.Companion.toHttpUrlOrNull
+import java.io.File
+
+/**
+ * Persistent cache of site favicons and colors, keyed by host, so feeds of an already known website
+ * don't need the site page, the icon and a palette to be fetched and computed again.
+ */
+class SiteIconCache(private val database: Database, private val iconsDir: File) {
+
+    /**
+     * @return the cached icon of [feed]'s website if it is still valid for this feed, null otherwise
+     */
+    @WorkerThread
+    fun get(feed: Feed, now: Long = System.currentTimeMillis()): SiteIcon? {
+        val host = hostOf(feed) ?: return null
+        val siteIcon = database.siteIconDao().getSiteIcon(host) ?: return null
+
+        val maxAge = if (siteIcon.iconUrl != null) MAX_AGE else MISSING_ICON_MAX_AGE
+        if (now - siteIcon.updatedAt > maxAge) return null
+
+        // remote services can give their own icon url, which wins over the cached one
+        return if (feed.iconUrl == null || feed.iconUrl == siteIcon.iconUrl) siteIcon else null
+    }
+
+    /**
+     * Store the icon and colors of [feed]'s website, [icon] being saved as a small file
+     */
+    @WorkerThread
+    fun put(feed: Feed, icon: Bitmap?, now: Long = System.currentTimeMillis()): SiteIcon? {
+        val host = hostOf(feed) ?: return null
+        val iconFile = icon?.let { saveIcon(host, it) }
+
+        return SiteIcon(host, feed.iconUrl, iconFile?.absolutePath, feed.textColor,
+                feed.backgroundColor, now).also {
+            database.siteIconDao().upsert(it)
+        }
+    }
+
+    /**
+     * @return the local copy of [feed]'s website icon if there is one
+     */
+    @WorkerThread
+    fun getIconFile(feed: Feed): File? {
+        val host = hostOf(feed) ?: return null
+
+        return database.siteIconDao().getSiteIcon(host)?.iconFile
+                ?.let { File(it) }
+                ?.takeIf { it.exists() }
+    }
+
+    private fun saveIcon(host: String, icon: Bitmap): File? {
+        if (!iconsDir.exists() && !iconsDir.mkdirs()) return null
+
+        val scaledIcon = if (icon.width > ICON_SIZE || icon.height > ICON_SIZE) {
+            val scale = ICON_SIZE.toFloat() / maxOf(icon.width, icon.height)
+            Bitmap.createScaledBitmap(icon, maxOf(1, (icon.width * scale).toInt()),
+                    maxOf(1, (icon.height * scale).toInt()), true)
+        } else icon
+
+        val file = File(iconsDir, "$host.png")
+
+        return try {
+            file.outputStream().use { scaledIcon.compress(Bitmap.CompressFormat.PNG, 100, it) }
+            file
+        } catch (e: Exception) {
+            null // the colors are still worth caching
+        }
+    }
+
+    companion object {
+        const val ICONS_DIRECTORY = "site_icons"
+
+        const val ICON_SIZE = 96
+
+        private const val MAX_AGE = 30L * 24 * 60 * 60 * 1000 // 30 days
+
+        // the site might have been unreachable, so a missing icon is checked again sooner
+        private const val MISSING_ICON_MAX_AGE = 24L * 60 * 60 * 1000 // 1 day
+
+        fun hostOf(feed: Feed): String? = (feed.siteUrl ?: feed.url)?.toHttpUrlOrNull()?.host
+    }
+}
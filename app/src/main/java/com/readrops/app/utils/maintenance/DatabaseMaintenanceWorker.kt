@@ -0,0 +1,60 @@
+package com.readrops.app.utils.maintenance
+
+import android.content.Context
+import android.os.Build
+import android.util.Log
+import androidx.work.Constraints
+import androidx.work.ExistingPeriodicWorkPolicy
+import androidx.work.PeriodicWorkRequest
+import androidx.work.WorkManager
+import androidx.work.Worker
+import androidx.work.WorkerParameters
+import androidx.work.workDataOf
+import com.readrops.db.Database
+import com.readrops.db.DatabaseMaintenance
+import org.koin.core.component.KoinComponent
+import org.koin.core.component.get
+import java.util.concurrent.TimeUnit
+
+/**
+ * Vacuums, analyzes and checkpoints the database once a day, while the device is idle,
+ * or charging on devices without idle mode
+ */
+class DatabaseMaintenanceWorker(context: Context, parameters: WorkerParameters) : Worker(context, parameters), KoinComponent {
+
+    override fun doWork(): Result {
+        val result = DatabaseMaintenance(get<Database>()).run(isStopped = { isStopped })
+        Log.d(TAG, "maintenance done in ${result.duration} ms, ${result.bytes} bytes reclaimed")
+
+        return Result.success(workDataOf(DURATION to result.duration, RECLAIMED_BYTES to result.bytes))
+    }
+
+    companion object {
+        val TAG: String = DatabaseMaintenanceWorker::class.java.simpleName
+
+        const val DURATION = "DURATION"
+        const val RECLAIMED_BYTES = "RECLAIMED_BYTES"
+
+        /**
+         * Schedule the daily maintenance, kept as it is if already scheduled
+         */
+        @JvmStatic
+        fun schedule(context: Context) {
+            val constraints = Constraints.Builder().apply {
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+                    setRequiresDeviceIdle(true)
+                } else {
+                    setRequiresCharging(true)
+                }
+            }.build()
+
+            val request = PeriodicWorkRequest.Builder(DatabaseMaintenanceWorker::class.java, 1, TimeUnit.DAYS)
+                    .addTag(TAG)
+                    .setConstraints(constraints)
+                    .build()
+
+            WorkManager.getInstance(context)
+                    .enqueueUniquePeriodicWork(TAG, ExistingPeriodicWorkPolicy.KEEP, request)
+        }
+    }
+}
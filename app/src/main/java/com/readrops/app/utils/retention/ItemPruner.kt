@@ -0,0 +1,86 @@
+package com.readrops.app.utils.retention
+
+import com.readrops.db.Database
+import com.readrops.db.entities.Feed
+import com.readrops.db.entities.account.Account
+
+/**
+ * Deletes the items exceeding the retention policy of their feed.
+ * Items are deleted by small chunks, each one in its own transaction,
+ * so the database is never held long enough to delay the item list queries.
+ */
+class ItemPruner(private val database: Database) {
+
+    /**
+     * @param isStopped checked between chunks, the pruning ends as soon as it returns true
+     */
+    fun prune(now: Long = System.currentTimeMillis(), isStopped: () -> Boolean = { false }): PruningResult {
+        val freePages = freePages()
+        var items = 0
+
+        loop@ for (account in database.accountDao().selectAll()) {
+            for (feed in database.feedDao().getFeeds(account.id)) {
+                val policy = RetentionPolicy.of(account, feed)
+                if (policy.isUnlimited) continue
+
+                items += pruneFeed(account, feed, policy, now, isStopped)
+                if (isStopped()) break@loop
+            }
+        }
+
+        // deleted rows, item bodies included, free their pages to be reused by the next insertions
+        val bytes = (freePages() - freePages).coerceAtLeast(0) * pageSize()
+        return PruningResult(items, bytes)
+    }
+
+    private fun pruneFeed(account: Account, feed: Feed, policy: RetentionPolicy, now: Long, isStopped: () -> Boolean): Int {
+        var items = 0
+
+        if (policy.maxAge > 0) {
+            items += pruneChunks(feed, isStopped) {
+                database.itemDao().getPrunableItemsOlderThan(feed.id, account.id, policy.olderThan(now),
+                        policy.keepStarred, CHUNK_SIZE)
+            }
+        }
+
+        if (policy.maxItems > 0) {
+            items += pruneChunks(feed, isStopped) {
+                database.itemDao().getPrunableItemsBeyond(feed.id, account.id, policy.maxItems,
+                        policy.keepStarred, CHUNK_SIZE)
+            }
+        }
+
+        return items
+    }
+
+    private inline fun pruneChunks(feed: Feed, isStopped: () -> Boolean, nextChunk: () -> List<Int>): Int {
+        var items = 0
+
+        while (!isStopped()) {
+            val itemIds = nextChunk()
+            if (itemIds.isEmpty()) break
+
+            database.itemDao().pruneItems(feed.id, itemIds)
+            items += itemIds.size
+        }
+
+        return items
+    }
+
+    private fun freePages() = pragma("freelist_count")
+
+    private fun pageSize() = pragma("page_size")
+
+    private fun pragma(name: String): Long = database.query("PRAGMA $name", null).use {
+        if (it.moveToFirst()) it.getLong(0) else 0L
+    }
+
+    companion object {
+        private const val CHUNK_SIZE = 100
+    }
+}
+
+/**
+ * @param bytes database space freed by the deleted items, reused by the next insertions
+ */
+data class PruningResult(val items: Int, val bytes: Long)
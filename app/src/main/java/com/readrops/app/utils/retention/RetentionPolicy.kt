@@ -0,0 +1,38 @@
+package com.readrops.app.utils.retention
+
+import com.readrops.db.entities.Feed
+import com.readrops.db.entities.account.Account
+import java.util.concurrent.TimeUnit
+
+/**
+ * Which items of a feed are kept
+ * @param maxAge in days, 0 to keep items whatever their age
+ * @param maxItems newest items kept per feed, 0 for no limit
+ * @param keepStarred true to never delete starred and read later items, which then don't count in [maxItems]
+ */
+data class RetentionPolicy(
+        val maxAge: Int = 0,
+        val maxItems: Int = 0,
+        val keepStarred: Boolean = true,
+) {
+
+    val isUnlimited
+        get() = maxAge <= 0 && maxItems <= 0
+
+    /**
+     * @return the date before which items are too old, 0 if there isn't any age limit
+     */
+    fun olderThan(now: Long) = if (maxAge > 0) now - TimeUnit.DAYS.toMillis(maxAge.toLong()) else 0L
+
+    companion object {
+        /**
+         * @return the policy of [feed], its own values overriding the ones of [account]
+         */
+        @JvmStatic
+        fun of(account: Account, feed: Feed) = RetentionPolicy(
+                maxAge = feed.retentionMaxAge ?: account.retentionMaxAge,
+                maxItems = feed.retentionMaxItems ?: account.retentionMaxItems,
+                keepStarred = feed.isRetentionKeepStarred ?: account.isRetentionKeepStarred,
+        )
+    }
+}
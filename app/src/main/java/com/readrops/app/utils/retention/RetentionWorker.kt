@@ -0,0 +1,53 @@
+package com.readrops.app.utils.retention
+
+import android.content.Context
+import android.util.Log
+import androidx.work.Constraints
+import androidx.work.ExistingPeriodicWorkPolicy
+import androidx.work.PeriodicWorkRequest
+import androidx.work.WorkManager
+import androidx.work.Worker
+import androidx.work.WorkerParameters
+import androidx.work.workDataOf
+import com.readrops.db.Database
+import org.koin.core.component.KoinComponent
+import org.koin.core.component.get
+import java.util.concurrent.TimeUnit
+
+/**
+ * Deletes once a day the items exceeding the retention policy of their feed and account
+ */
+class RetentionWorker(context: Context, parameters: WorkerParameters) : Worker(context, parameters), KoinComponent {
+
+    override fun doWork(): Result {
+        val result = ItemPruner(get<Database>()).prune(isStopped = { isStopped })
+        Log.d(TAG, "${result.items} items pruned, ${result.bytes} bytes reclaimed")
+
+        return Result.success(workDataOf(PRUNED_ITEMS to result.items, RECLAIMED_BYTES to result.bytes))
+    }
+
+    companion object {
+        val TAG: String = RetentionWorker::class.java.simpleName
+
+        const val PRUNED_ITEMS = "PRUNED_ITEMS"
+        const val RECLAIMED_BYTES = "RECLAIMED_BYTES"
+
+        /**
+         * Schedule the daily pruning, kept as it is if already scheduled
+         */
+        @JvmStatic
+        fun schedule(context: Context) {
+            val constraints = Constraints.Builder()
+                    .setRequiresBatteryNotLow(true)
+                    .build()
+
+            val request = PeriodicWorkRequest.Builder(RetentionWorker::class.java, 1, TimeUnit.DAYS)
+                    .addTag(TAG)
+                    .setConstraints(constraints)
+                    .build()
+
+            WorkManager.getInstance(context)
+                    .enqueueUniquePeriodicWork(TAG, ExistingPeriodicWorkPolicy.KEEP, request)
+        }
+    }
+}
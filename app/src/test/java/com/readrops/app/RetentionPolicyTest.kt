@@ -0,0 +1,42 @@
+package com.readrops.app
+
+import com.readrops.app.utils.retention.RetentionPolicy
+import com.readrops.db.entities.Feed
+import com.readrops.db.entities.account.Account
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertFalse
+import junit.framework.TestCase.assertTrue
+import org.junit.Test
+import java.util.concurrent.TimeUnit
+
+class RetentionPolicyTest {
+
+    private val account = Account(retentionMaxAge = 30, retentionMaxItems = 100, isRetentionKeepStarred = true)
+
+    @Test
+    fun accountPolicyTest() {
+        assertEquals(RetentionPolicy(30, 100, true), RetentionPolicy.of(account, Feed()))
+    }
+
+    @Test
+    fun feedPolicyTest() {
+        val feed = Feed(retentionMaxAge = 7, isRetentionKeepStarred = false)
+
+        assertEquals(RetentionPolicy(7, 100, false), RetentionPolicy.of(account, feed))
+    }
+
+    @Test
+    fun unlimitedTest() {
+        assertTrue(RetentionPolicy.of(Account(), Feed()).isUnlimited)
+        assertTrue(RetentionPolicy.of(account, Feed(retentionMaxAge = 0, retentionMaxItems = 0)).isUnlimited)
+        assertFalse(RetentionPolicy.of(Account(), Feed(retentionMaxItems = 50)).isUnlimited)
+    }
+
+    @Test
+    fun olderThanTest() {
+        val now = 1_000_000_000_000L
+
+        assertEquals(now - TimeUnit.DAYS.toMillis(30), RetentionPolicy(maxAge = 30).olderThan(now))
+        assertEquals(0L, RetentionPolicy(maxItems = 20).olderThan(now))
+    }
+}
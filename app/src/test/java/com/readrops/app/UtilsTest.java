@@ -6,6 +6,7 @@ import com.readrops.app.utils.Utils;
 
 import org.junit.Test;
 
+import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertTrue;
 
 public class UtilsTest {
@@ -19,4 +20,12 @@ public class UtilsTest {
     public void colorTooDarkTest() {
         assertTrue(Utils.isColorTooDark(Color.parseColor("#1a1a1a")));
     }
+
+    @Test
+    public void inSampleSizeTest() {
+        assertEquals(1, Utils.getInSampleSize(32, 32, 96));
+        assertEquals(1, Utils.getInSampleSize(180, 180, 96));
+        assertEquals(4, Utils.getInSampleSize(512, 512, 96));
+        assertEquals(2, Utils.getInSampleSize(1024, 200, 96));
+    }
 }
@@ -0,0 +1,82 @@
+package com.readrops.db
+
+import android.content.Context
+import androidx.room.Room
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.readrops.db.entities.Feed
+import com.readrops.db.entities.Item
+import com.readrops.db.entities.account.Account
+import com.readrops.db.entities.account.AccountType
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertTrue
+import org.joda.time.LocalDateTime
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+class DatabaseMaintenanceTest {
+
+    private lateinit var context: Context
+    private lateinit var database: Database
+
+    @Before
+    fun createDb() {
+        context = ApplicationProvider.getApplicationContext()
+        context.deleteDatabase(DB_NAME)
+
+        // vacuum needs a database file
+        database = Room.databaseBuilder(context, Database::class.java, DB_NAME)
+                .addCallback(Database.CALLBACK)
+                .build()
+
+        val account = Account().apply { accountType = AccountType.LOCAL }
+        account.id = database.accountDao().insert(account).blockingGet().toInt()
+        database.feedDao().compatInsert(Feed(name = "feed", accountId = account.id))
+    }
+
+    @After
+    fun tearDown() {
+        database.close()
+        context.deleteDatabase(DB_NAME)
+    }
+
+    @Test
+    fun incrementalVacuumTest() {
+        // the first run switches the database to incremental auto vacuum
+        DatabaseMaintenance(database).run()
+        assertEquals(2L, pragma("auto_vacuum"))
+
+        val items = (1..500).map {
+            Item(title = "item $it", feedId = 1, guid = "guid$it", pubDate = LocalDateTime.now(),
+                    content = (1..200).joinToString(" ") { word -> "$word-$it" })
+        }
+        database.itemDao().insertNewItems(items)
+        database.openHelper.writableDatabase.execSQL("Delete From Item")
+
+        val result = DatabaseMaintenance(database).run()
+
+        assertTrue(result.bytes > 0)
+        assertEquals(0L, pragma("freelist_count"))
+    }
+
+    @Test
+    fun statisticsTest() {
+        DatabaseMaintenance(database).run()
+
+        database.query("Select 1 From sqlite_master Where name = 'sqlite_stat1'", null).use {
+            assertTrue(it.moveToFirst())
+        }
+    }
+
+    private fun pragma(name: String) = database.query("PRAGMA $name", null).use {
+        it.moveToFirst()
+        it.getLong(0)
+    }
+
+    companion object {
+        private const val DB_NAME = "maintenance-test-db"
+    }
+}
@@ -0,0 +1,295 @@
+package com.readrops.db
+
+import android.content.Context
+import androidx.paging.ItemKeyedDataSource
+import androidx.room.Room
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.readrops.db.entities.Feed
+import com.readrops.db.entities.Item
+import com.readrops.db.entities.ItemBody
+import com.readrops.db.entities.account.Account
+import com.readrops.db.entities.account.AccountType
+import com.readrops.db.filters.ListSortType
+import com.readrops.db.pojo.ItemWithFeed
+import com.readrops.db.queries.ItemSelectionQueryBuilder
+import com.readrops.db.queries.ItemsQueryBuilder
+import com.readrops.db.queries.QueryFilters
+import junit.framework.TestCase.assertEquals
+import org.joda.time.LocalDateTime
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+class ItemDaoTest {
+
+    private lateinit var database: Database
+
+    @Before
+    fun createDb() {
+        val context = ApplicationProvider.getApplicationContext<Context>()
+        database = Room.inMemoryDatabaseBuilder(context, Database::class.java)
+                .addCallback(Database.CALLBACK)
+                .build()
+
+        val account = Account().apply { accountType = AccountType.LOCAL }
+        account.id = database.accountDao().insert(account).blockingGet().toInt()
+
+        for (i in 1..2) {
+            database.feedDao().compatInsert(Feed(name = "feed $i", accountId = account.id))
+        }
+    }
+
+    @After
+    fun tearDown() {
+        database.close()
+    }
+
+    @Test
+    fun insertNewItemsTest() {
+        val items = listOf(item(1, "guid1"), item(1, "guid2"))
+        val newItems = database.itemDao().insertNewItems(items)
+
+        assertEquals(2, newItems.size)
+        assertEquals(listOf("guid1", "guid2"), database.itemDao().getGuids(1).sorted())
+    }
+
+    @Test
+    fun ignoreKnownItemsTest() {
+        database.itemDao().insertNewItems(listOf(item(1, "guid1")))
+
+        val newItems = database.itemDao().insertNewItems(listOf(item(1, "guid1"), item(1, "guid2"),
+                item(2, "guid1"), item(1, "guid2")))
+
+        assertEquals(listOf("guid2", "guid1"), newItems.map { it.guid })
+        assertEquals(listOf(1, 2), newItems.map { it.feedId })
+        newItems.forEach { assertEquals(it, database.itemDao().select(it.id)) }
+    }
+
+    @Test
+    fun ignoreKnownItemsWithoutGuidTest() {
+        val items = { listOf(Item(title = "remote", feedId = 1, remoteId = "1", pubDate = LocalDateTime.now()),
+                Item(title = "link", feedId = 1, link = "https://example.com/1", pubDate = LocalDateTime.now()),
+                Item(title = "title", feedId = 1, pubDate = LocalDateTime.now())) }
+
+        assertEquals(3, database.itemDao().insertNewItems(items()).size)
+        assertEquals(0, database.itemDao().insertNewItems(items()).size)
+        assertEquals(listOf("1", ItemBody.hash("title"), "https://example.com/1"), database.itemDao().getGuids(1).sorted())
+    }
+
+    @Test
+    fun sharedBodyTest() {
+        database.itemDao().insertNewItems(listOf(item(1, "guid1", "content"), item(2, "guid1", "content"),
+                item(2, "guid2", "other content")))
+
+        assertEquals(mapOf("content" to 2, "other content" to 1), bodies())
+    }
+
+    @Test
+    fun deleteLastReferenceTest() {
+        val items = database.itemDao().insertNewItems(listOf(item(1, "guid1", "content"),
+                item(2, "guid1", "content")))
+
+        database.itemDao().delete(items[0]).blockingAwait()
+        assertEquals(mapOf("content" to 1), bodies())
+
+        // cascade
+        database.openHelper.writableDatabase.execSQL("Delete From Feed Where id = 2")
+        assertEquals(emptyMap<String, Int>(), bodies())
+    }
+
+    @Test
+    fun ignoredItemBodyTest() {
+        database.itemDao().insertNewItems(listOf(item(1, "guid1", "content")))
+        database.itemDao().insertNewItems(listOf(item(1, "guid1", "updated content")))
+
+        assertEquals(mapOf("content" to 1), bodies())
+    }
+
+    @Test
+    fun selectBodyTest() {
+        val description = "<p>description</p>".repeat(20)
+        val item = database.itemDao().insertNewItems(listOf(item(1, "guid1", "content").apply {
+            this.description = description
+        }))[0]
+
+        val cursor = database.query(ItemSelectionQueryBuilder.buildQuery(item.id, false))
+        cursor.use {
+            it.moveToFirst()
+
+            assertEquals(description, CompressedTextConverter.toText(it.getBlob(it.getColumnIndex("description"))))
+            assertEquals("content", CompressedTextConverter.toText(it.getBlob(it.getColumnIndex("content"))))
+        }
+    }
+
+    @Test
+    fun prunableItemsOlderThanTest() {
+        val now = LocalDateTime.now()
+        val items = database.itemDao().insertNewItems(listOf(
+                item(1, "guid1", pubDate = now.minusDays(10)).apply { isStarred = true },
+                item(1, "guid2", pubDate = now.minusDays(5)),
+                item(1, "guid3", pubDate = now.minusDays(1))))
+        val olderThan = now.minusDays(3).toDateTime().millis
+
+        assertEquals(listOf(items[1].id), database.itemDao().getPrunableItemsOlderThan(1, 1, olderThan, true, 10))
+        assertEquals(listOf(items[0].id, items[1].id),
+                database.itemDao().getPrunableItemsOlderThan(1, 1, olderThan, false, 10))
+    }
+
+    @Test
+    fun prunableItemsBeyondTest() {
+        val now = LocalDateTime.now()
+        val items = database.itemDao().insertNewItems((1..5).map {
+            item(1, "guid$it", pubDate = now.minusDays(it)).apply { isReadItLater = it == 1 }
+        })
+
+        // the read later item doesn't count
+        assertEquals(listOf(items[3].id, items[4].id), database.itemDao().getPrunableItemsBeyond(1, 1, 2, true, 10))
+        assertEquals(listOf(items[2].id), database.itemDao().getPrunableItemsBeyond(1, 1, 2, false, 1))
+    }
+
+    @Test
+    fun pruneItemsTest() {
+        val now = LocalDateTime.now()
+        val items = database.itemDao().insertNewItems(listOf(item(1, "guid1", "content", now.minusDays(2)),
+                item(1, "guid2", "content", now.minusDays(1)), item(1, "guid3", "content", now)))
+
+        database.itemDao().pruneItems(1, listOf(items[0].id, items[1].id))
+
+        assertEquals(listOf("guid3"), database.itemDao().getGuids(1))
+        assertEquals(now.minusDays(1).toDateTime().millis, database.feedDao().getFeedById(1).prunedUntil)
+        assertEquals(mapOf("content" to 1), bodies())
+    }
+
+    @Test
+    fun searchTest() {
+        val now = LocalDateTime.now()
+        val items = database.itemDao().insertNewItems(listOf(
+                item(1, "guid1", pubDate = now).apply { plainText = "A text about Kotlin" },
+                item(1, "guid2", pubDate = now.minusDays(1)).apply { title = "Kotlin news" },
+                item(2, "guid3", pubDate = now.minusDays(2)).apply { plainText = "Kotlin, kotlin and kotlin" },
+                item(2, "guid4", pubDate = now).apply { author = "Déjà" }))
+
+        // title matches first, then the most matches
+        assertEquals(listOf(items[1].id, items[2].id, items[0].id), search("kot"))
+        assertEquals(listOf(items[3].id), search("deja"))
+        assertEquals(listOf(items[0].id), search("text kotlin"))
+        assertEquals(listOf(items[0].id), search("\"text"))
+    }
+
+    @Test
+    fun searchIndexUpdateTest() {
+        val items = database.itemDao().insertNewItems(listOf(item(1, "guid1"), item(2, "guid2")))
+
+        database.itemDao().update(items[0].apply { title = "updated title" }).blockingAwait()
+        assertEquals(listOf(items[0].id), search("updated"))
+
+        database.itemDao().delete(items[0]).blockingAwait()
+        assertEquals(emptyList<Int>(), search("updated"))
+
+        // cascade
+        database.openHelper.writableDatabase.execSQL("Delete From Feed Where id = 2")
+        database.query("Select count(*) From ItemSearch", null).use {
+            it.moveToFirst()
+            assertEquals(0, it.getInt(0))
+        }
+    }
+
+    @Test
+    fun feedCountersTest() {
+        val items = database.itemDao().insertNewItems(listOf(item(1, "guid1"), item(1, "guid2").apply { isStarred = true },
+                item(1, "guid3").apply { isReadItLater = true }, item(2, "guid1").apply { isRead = true }))
+
+        assertEquals(listOf(Triple(3, 1, 1), Triple(0, 0, 0)), counters())
+
+        database.itemDao().setReadState(items[0].id, true).blockingAwait()
+        database.itemDao().setStarState(items[1].id, false).blockingAwait()
+        database.itemDao().setReadItLater(true, items[3].id).blockingAwait()
+        assertEquals(listOf(Triple(2, 0, 1), Triple(0, 0, 1)), counters())
+
+        database.itemDao().pruneItems(1, listOf(items[1].id, items[2].id))
+        assertEquals(listOf(Triple(0, 0, 0), Triple(0, 0, 1)), counters())
+    }
+
+    @Test
+    fun keysetPagingTest() {
+        // items sharing the same date are ordered by id
+        val date = LocalDateTime.now()
+        database.itemDao().insertNewItems((1..10).map { item(it % 2 + 1, "guid$it", pubDate = date.minusHours(it / 3)) })
+
+        for (sortType in ListSortType.values()) {
+            val queryFilters = QueryFilters(accountId = 1, sortType = sortType)
+            val expected = database.itemDao().selectItems(ItemsQueryBuilder.buildItemsQuery(queryFilters))
+            val dataSource = ItemsDataSource(database, queryFilters, false)
+
+            val items = arrayListOf<ItemWithFeed>()
+            dataSource.loadInitial(ItemKeyedDataSource.LoadInitialParams(null, 3, false), initialCallback { items += it })
+            do {
+                val size = items.size
+                dataSource.loadAfter(ItemKeyedDataSource.LoadParams(items.last().key, 3), callback { items += it })
+            } while (items.size > size)
+
+            assertEquals(expected.map { it.item.id }, items.map { it.item.id })
+
+            val previousItems = arrayListOf(items.last())
+            do {
+                val size = previousItems.size
+                dataSource.loadBefore(ItemKeyedDataSource.LoadParams(previousItems.first().key, 3),
+                        callback { previousItems.addAll(0, it) })
+            } while (previousItems.size > size)
+
+            assertEquals(expected.map { it.item.id }, previousItems.map { it.item.id })
+
+            // a reloaded list starts before the item last seen
+            val reloadedItems = arrayListOf<ItemWithFeed>()
+            dataSource.loadInitial(ItemKeyedDataSource.LoadInitialParams(expected[5].key, 4, false),
+                    initialCallback { reloadedItems += it })
+
+            assertEquals(expected.subList(3, 7).map { it.item.id }, reloadedItems.map { it.item.id })
+        }
+    }
+
+    private fun initialCallback(onData: (List<ItemWithFeed>) -> Unit) =
+            object : ItemKeyedDataSource.LoadInitialCallback<ItemWithFeed>() {
+                override fun onResult(data: List<ItemWithFeed>, position: Int, totalCount: Int) = onData(data)
+
+                override fun onResult(data: List<ItemWithFeed>) = onData(data)
+            }
+
+    private fun callback(onData: (List<ItemWithFeed>) -> Unit) =
+            object : ItemKeyedDataSource.LoadCallback<ItemWithFeed>() {
+                override fun onResult(data: List<ItemWithFeed>) = onData(data)
+            }
+
+    // unread, starred and read later counts of each feed
+    private fun counters() = database.feedDao().getFeedsWithCounters(1).map {
+        Triple(it.counters!!.unreadCount, it.counters!!.starredCount, it.counters!!.readLaterCount)
+    }
+
+    private fun search(search: String): List<Int> {
+        val ids = arrayListOf<Int>()
+
+        database.query(ItemsQueryBuilder.buildItemsQuery(QueryFilters(accountId = 1, searchQuery = search))).use {
+            while (it.moveToNext()) ids += it.getInt(it.getColumnIndex("id"))
+        }
+
+        return ids
+    }
+
+    private fun bodies(): Map<String, Int> {
+        val bodies = hashMapOf<String, Int>()
+
+        database.query("Select text, ref_count From ItemBody", null).use {
+            while (it.moveToNext()) {
+                bodies[CompressedTextConverter.toText(it.getBlob(0))!!] = it.getInt(1)
+            }
+        }
+
+        return bodies
+    }
+
+    private fun item(feedId: Int, guid: String, content: String? = null, pubDate: LocalDateTime = LocalDateTime.now()) =
+            Item(title = guid, feedId = feedId, guid = guid, content = content, pubDate = pubDate)
+}
@@ -6,9 +6,14 @@ import androidx.test.core.app.ApplicationProvider
 import androidx.test.ext.junit.runners.AndroidJUnit4
 import com.readrops.db.filters.FilterType
 import com.readrops.db.filters.ListSortType
+import com.readrops.db.queries.ItemsKey
+import com.readrops.db.queries.ItemsPage
 import com.readrops.db.queries.ItemsQueryBuilder
+import com.readrops.db.queries.PageDirection
 import com.readrops.db.queries.QueryFilters
+import junit.framework.TestCase.assertEquals
 import junit.framework.TestCase.assertFalse
+import junit.framework.TestCase.assertNull
 import junit.framework.TestCase.assertTrue
 import org.junit.After
 import org.junit.Before
@@ -23,7 +28,9 @@ class ItemsQueryBuilderTest {
     @Before
     fun createDb() {
         val context = ApplicationProvider.getApplicationContext<Context>()
-        database = Room.inMemoryDatabaseBuilder(context, Database::class.java).build()
+        database = Room.inMemoryDatabaseBuilder(context, Database::class.java)
+                .addCallback(Database.CALLBACK)
+                .build()
     }
 
     @After
@@ -119,6 +126,80 @@ class ItemsQueryBuilderTest {
         }
     }
 
+    @Test
+    fun searchTest() {
+        val queryFilters = QueryFilters(accountId = 1, searchQuery = "kotlin news")
+
+        val query = ItemsQueryBuilder.buildItemsQuery(queryFilters)
+        database.query(query)
+
+        with(query.sql) {
+            assertTrue(contains("ItemSearch Match ?"))
+            assertTrue(contains("search_title DESC, search_rank DESC, pub_date DESC"))
+        }
+        assertEquals(2, query.argCount)
+    }
+
+    @Test
+    fun blankSearchTest() {
+        val queryFilters = QueryFilters(accountId = 1, searchQuery = "  ")
+
+        val query = ItemsQueryBuilder.buildItemsQuery(queryFilters)
+
+        assertFalse(query.sql.contains("ItemSearch"))
+        assertEquals(0, query.argCount)
+    }
+
+    @Test
+    fun pageQueryTest() {
+        val queryFilters = QueryFilters(accountId = 1)
+
+        val query = ItemsQueryBuilder.buildItemsPageQuery(queryFilters, false, ItemsPage(ItemsKey(100, 5), 20))
+        database.query(query)
+
+        with(query.sql) {
+            assertTrue(contains("And (pub_date <= 100 And (pub_date < 100 Or (pub_date = 100 And (Item.id < 5))))"))
+            assertTrue(contains("pub_date DESC, Item.id DESC"))
+            assertTrue(contains("LIMIT 20"))
+        }
+    }
+
+    @Test
+    fun previousPageQueryTest() {
+        val queryFilters = QueryFilters(accountId = 1, sortType = ListSortType.OLDEST_TO_NEWEST)
+
+        val query = ItemsQueryBuilder.buildItemsPageQuery(queryFilters, false,
+                ItemsPage(ItemsKey(100, 5), 20, PageDirection.BEFORE))
+        database.query(query)
+
+        with(query.sql) {
+            assertTrue(contains("And (pub_date <= 100 And (pub_date < 100 Or (pub_date = 100 And (Item.id < 5))))"))
+            assertTrue(contains("pub_date DESC, Item.id DESC"))
+        }
+    }
+
+    @Test
+    fun searchPageQueryTest() {
+        val queryFilters = QueryFilters(accountId = 1, searchQuery = "kotlin")
+
+        val query = ItemsQueryBuilder.buildItemsPageQuery(queryFilters, false,
+                ItemsPage(ItemsKey(100, 5, 1, 3), 20, PageDirection.FROM))
+        database.query(query)
+
+        with(query.sql) {
+            assertTrue(contains("search_title <= 1 And (search_title < 1 Or (search_title = 1 And (search_rank < 3 " +
+                    "Or (search_rank = 3 And (pub_date < 100 Or (pub_date = 100 And (Item.id <= 5)))))))"))
+        }
+        assertEquals(2, query.argCount)
+    }
+
+    @Test
+    fun matchQueryTest() {
+        assertEquals("\"kotlin*\" \"news*\"", ItemsQueryBuilder.buildMatchQuery(" kotlin  news "))
+        assertEquals("\"OR*\" \"title:a-b*\"", ItemsQueryBuilder.buildMatchQuery("OR \"title:a-b*\""))
+        assertNull(ItemsQueryBuilder.buildMatchQuery("\" * \""))
+    }
+
     @Test(expected = IllegalArgumentException::class)
     fun accountIdExceptionTest() {
         val queryFilters = QueryFilters()
@@ -0,0 +1,96 @@
+package com.readrops.db
+
+import androidx.room.testing.MigrationTestHelper
+import androidx.sqlite.db.SupportSQLiteDatabase
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.platform.app.InstrumentationRegistry
+import com.readrops.db.entities.ItemBody
+import junit.framework.TestCase.assertEquals
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+class MigrationTest {
+
+    @get:Rule
+    val helper = MigrationTestHelper(InstrumentationRegistry.getInstrumentation(),
+            Database::class.java.canonicalName, FrameworkSQLiteOpenHelperFactory())
+
+    @Test
+    fun migrate3To4Test() {
+        helper.createDatabase(DB_NAME, 3).apply {
+            execSQL("Insert Into Account (id, account_type, last_modified, current_account, notifications_enabled) " +
+                    "Values (1, 0, 0, 1, 0)")
+            execSQL("Insert Into Feed (id, name, text_color, background_color, account_id) Values (1, 'feed 1', 0, 0, 1)")
+            execSQL("Insert Into Feed (id, name, text_color, background_color, account_id) Values (2, 'feed 2', 0, 0, 1)")
+
+            insertItem(1, 1, "guid1", description = SHARED_DESCRIPTION, content = SHARED_CONTENT)
+            // duplicate of item 1, dropped with its body
+            insertItem(2, 1, "guid1", description = "<p>duplicate</p>")
+            // items without guid are all kept
+            insertItem(3, 1, null, description = SHARED_DESCRIPTION, cleanDescription = "About kotlin",
+                    read = true, starred = true)
+            insertItem(4, 1, null, title = "Kotlin news")
+            // same guid in another feed
+            insertItem(5, 2, "guid1", description = SHARED_DESCRIPTION, content = SHARED_CONTENT, readItLater = true)
+
+            close()
+        }
+
+        val db = helper.runMigrationsAndValidate(DB_NAME, 4, true, *Database_Migrations.build())
+
+        assertEquals(listOf(1L, 3L, 4L, 5L), longs(db, "Select id From Item Order By id"))
+
+        // bodies are stored once, referenced by every item sharing them
+        assertEquals(listOf(3L), longs(db, "Select ref_count From ItemBody Where hash = '${ItemBody.hash(SHARED_DESCRIPTION)}'"))
+        assertEquals(listOf(2L), longs(db, "Select ref_count From ItemBody Where hash = '${ItemBody.hash(SHARED_CONTENT)}'"))
+        assertEquals(listOf(2L), longs(db, "Select count(*) From ItemBody"))
+        assertEquals(listOf(3L), longs(db, "Select count(*) From Item Where description_hash = '${ItemBody.hash(SHARED_DESCRIPTION)}'"))
+
+        // title, clean description and author are indexed
+        assertEquals(listOf(3L, 4L), longs(db, "Select rowid From ItemSearch Where ItemSearch Match 'kotlin' Order By rowid"))
+
+        assertEquals(listOf(1L, 2L, 1L, 0L), longs(db, "Select feed_id, unread_count, starred_count, read_later_count " +
+                "From FeedCounters Where feed_id = 1"))
+        assertEquals(listOf(2L, 1L, 0L, 1L), longs(db, "Select feed_id, unread_count, starred_count, read_later_count " +
+                "From FeedCounters Where feed_id = 2"))
+
+        // triggers created by the migration keep counters and references up to date
+        db.execSQL("Delete From Item Where id = 5")
+        assertEquals(listOf(0L), longs(db, "Select unread_count From FeedCounters Where feed_id = 2"))
+        assertEquals(listOf(2L), longs(db, "Select ref_count From ItemBody Where hash = '${ItemBody.hash(SHARED_DESCRIPTION)}'"))
+
+        assertEquals(listOf(0L), longs(db, "Select count(*) From sqlite_master Where name = 'item_body_migration'"))
+        db.close()
+    }
+
+    private fun SupportSQLiteDatabase.insertItem(id: Int, feedId: Int, guid: String?, title: String = "item $id",
+                                                 description: String? = null, cleanDescription: String? = null,
+                                                 content: String? = null, read: Boolean = false,
+                                                 starred: Boolean = false, readItLater: Boolean = false) {
+        execSQL("Insert Into Item (id, title, description, clean_description, content, feed_id, guid, pub_date, " +
+                "read_time, read, starred, read_it_later) Values (?, ?, ?, ?, ?, ?, ?, 0, 0, ?, ?, ?)",
+                arrayOf(id, title, description, cleanDescription, content, feedId, guid, read, starred, readItLater))
+    }
+
+    /**
+     * @return every column of every row of [query]
+     */
+    private fun longs(db: SupportSQLiteDatabase, query: String): List<Long> = db.query(query).use {
+        val values = arrayListOf<Long>()
+        while (it.moveToNext()) {
+            for (column in 0 until it.columnCount) values += it.getLong(column)
+        }
+
+        values
+    }
+
+    companion object {
+        private const val DB_NAME = "migration_test"
+
+        private const val SHARED_DESCRIPTION = "<p>Shared description</p>"
+        private const val SHARED_CONTENT = "<p>Shared content</p>"
+    }
+}
@@ -0,0 +1,99 @@
+package com.readrops.db
+
+import android.content.Context
+import androidx.room.Room
+import androidx.sqlite.db.SupportSQLiteProgram
+import androidx.sqlite.db.SupportSQLiteQuery
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.readrops.db.filters.FilterType
+import com.readrops.db.filters.ListSortType
+import com.readrops.db.queries.ItemSelectionQueryBuilder
+import com.readrops.db.queries.ItemsKey
+import com.readrops.db.queries.ItemsPage
+import com.readrops.db.queries.ItemsQueryBuilder
+import com.readrops.db.queries.PageDirection
+import com.readrops.db.queries.QueryFilters
+import junit.framework.TestCase.assertTrue
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Checks that no items query reads a whole table, whatever the filters.
+ * Virtual table scans are full-text index lookups, they are allowed.
+ */
+@RunWith(AndroidJUnit4::class)
+class QueryPlanTest {
+
+    private lateinit var database: Database
+
+    @Before
+    fun createDb() {
+        val context = ApplicationProvider.getApplicationContext<Context>()
+        database = Room.inMemoryDatabaseBuilder(context, Database::class.java)
+                .addCallback(Database.CALLBACK)
+                .build()
+    }
+
+    @After
+    fun tearDown() {
+        database.close()
+    }
+
+    @Test
+    fun itemsQueryPlanTest() {
+        for (separateState in listOf(false, true)) {
+            for (showReadItems in listOf(true, false)) {
+                for (filterType in FilterType.values()) {
+                    for (sortType in ListSortType.values()) {
+                        for (searchQuery in listOf(null, "kotlin")) {
+                            val queryFilters = QueryFilters(accountId = 1, showReadItems = showReadItems,
+                                    filterType = filterType, filterFeedId = 1, filterFolderId = 1,
+                                    sortType = sortType, searchQuery = searchQuery)
+
+                            assertNoFullScan(ItemsQueryBuilder.buildItemsQuery(queryFilters, separateState))
+
+                            for (direction in PageDirection.values()) {
+                                val page = ItemsPage(ItemsKey(100, 5, 1, 3), 50, direction)
+                                assertNoFullScan(ItemsQueryBuilder.buildItemsPageQuery(queryFilters, separateState, page))
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    fun itemSelectionQueryPlanTest() {
+        for (separateState in listOf(false, true)) {
+            assertNoFullScan(ItemSelectionQueryBuilder.buildQuery(1, separateState))
+        }
+    }
+
+    private fun assertNoFullScan(query: SupportSQLiteQuery) {
+        val plan = queryPlan(query)
+        val scans = plan.filter { it.startsWith("SCAN") && !it.contains("VIRTUAL TABLE") }
+
+        assertTrue("${query.sql}\n${plan.joinToString("\n")}", scans.isEmpty())
+    }
+
+    private fun queryPlan(query: SupportSQLiteQuery): List<String> {
+        val explainQuery = object : SupportSQLiteQuery {
+            override fun getSql() = "EXPLAIN QUERY PLAN ${query.sql}"
+
+            override fun bindTo(statement: SupportSQLiteProgram) = query.bindTo(statement)
+
+            override fun getArgCount() = query.argCount
+        }
+
+        val plan = arrayListOf<String>()
+        database.query(explainQuery).use {
+            while (it.moveToNext()) plan += it.getString(it.getColumnIndex("detail"))
+        }
+
+        return plan
+    }
+}
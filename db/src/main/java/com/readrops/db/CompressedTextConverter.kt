@@ -0,0 +1,92 @@
+package com.readrops.db
+
+import androidx.room.TypeConverter
+import java.io.ByteArrayOutputStream
+import java.util.zip.DataFormatException
+import java.util.zip.Deflater
+import java.util.zip.Inflater
+
+/**
+ * Stores large texts, like item bodies, as BLOBs.
+ *
+ * A compressed value is the [DEFLATE_FORMAT] byte followed by a raw deflate stream.
+ * Texts too short to gain anything are stored as plain UTF-8 bytes, which never start with [DEFLATE_FORMAT].
+ */
+object CompressedTextConverter {
+
+    const val DEFLATE_FORMAT = 0xFF.toByte()
+
+    /**
+     * Under this length, the deflate overhead is rarely worth it
+     */
+    const val MIN_COMPRESSION_LENGTH = 128
+
+    private const val BUFFER_SIZE = 8192
+
+    @TypeConverter
+    @JvmStatic
+    fun fromText(text: String?): ByteArray? {
+        if (text == null) return null
+
+        val bytes = text.toByteArray()
+        if (bytes.size < MIN_COMPRESSION_LENGTH) return bytes
+
+        val compressed = deflate(bytes)
+        return if (compressed.size < bytes.size) compressed else bytes
+    }
+
+    @TypeConverter
+    @JvmStatic
+    fun toText(bytes: ByteArray?): String? {
+        if (bytes == null) return null
+
+        return if (isCompressed(bytes)) String(inflate(bytes)) else String(bytes)
+    }
+
+    @JvmStatic
+    fun isCompressed(bytes: ByteArray) = bytes.isNotEmpty() && bytes[0] == DEFLATE_FORMAT
+
+    private fun deflate(bytes: ByteArray): ByteArray {
+        val deflater = Deflater(Deflater.BEST_COMPRESSION, true)
+        val output = ByteArrayOutputStream(bytes.size / 2)
+        val buffer = ByteArray(BUFFER_SIZE)
+
+        try {
+            output.write(DEFLATE_FORMAT.toInt())
+            deflater.setInput(bytes)
+            deflater.finish()
+
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer))
+            }
+        } finally {
+            deflater.end()
+        }
+
+        return output.toByteArray()
+    }
+
+    private fun inflate(bytes: ByteArray): ByteArray {
+        val inflater = Inflater(true)
+        val output = ByteArrayOutputStream(bytes.size * 3)
+        val buffer = ByteArray(BUFFER_SIZE)
+
+        try {
+            inflater.setInput(bytes, 1, bytes.size - 1)
+
+            while (!inflater.finished()) {
+                val count = inflater.inflate(buffer)
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    throw DataFormatException("Truncated stream")
+
+                output.write(buffer, 0, count)
+            }
+        } catch (e: DataFormatException) {
+            throw IllegalStateException("Compressed text is corrupted", e)
+        } finally {
+            inflater.end()
+        }
+
+        return output.toByteArray()
+    }
+}
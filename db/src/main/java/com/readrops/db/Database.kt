@@ -3,15 +3,17 @@ package com.readrops.db
 import androidx.room.Database
 import androidx.room.RoomDatabase
 import androidx.room.TypeConverters
+import androidx.sqlite.db.SupportSQLiteDatabase
 import com.readrops.db.dao.*
 import com.readrops.db.entities.*
 import com.readrops.db.entities.account.Account
 import dev.matrix.roomigrant.GenerateRoomMigrations
 
 @Database(entities = [Feed::class, Item::class, Folder::class, Account::class,
-    ItemStateChange::class, ItemState::class], version = 3)
+    ItemStateChange::class, ItemState::class, SiteIcon::class, ItemBody::class, ItemSearch::class,
+    FeedCounters::class, HostFailure::class], version = 4)
 @TypeConverters(Converters::class)
-@GenerateRoomMigrations
+@GenerateRoomMigrations(MigrationRules::class)
 abstract class Database : RoomDatabase() {
     abstract fun feedDao(): FeedDao
 
@@ -24,4 +26,22 @@ abstract class Database : RoomDatabase() {
     abstract fun itemStateDao(): ItemStateDao
 
     abstract fun itemStateChangesDao(): ItemStateChangeDao
-}
\ No newline at end of file
+
+    abstract fun siteIconDao(): SiteIconDao
+
+    abstract fun hostFailureDao(): HostFailureDao
+
+    companion object {
+        /**
+         * Creates what can't be declared on the entities, must be added to every database builder
+         */
+        @JvmField
+        val CALLBACK = object : RoomDatabase.Callback() {
+            override fun onCreate(db: SupportSQLiteDatabase) {
+                ItemBodyTriggers.create(db)
+                ItemSearchTriggers.create(db)
+                FeedCountersTriggers.create(db)
+            }
+        }
+    }
+}
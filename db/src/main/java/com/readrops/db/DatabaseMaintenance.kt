@@ -0,0 +1,70 @@
+package com.readrops.db
+
+import android.database.Cursor
+import androidx.sqlite.db.SupportSQLiteDatabase
+import java.util.concurrent.TimeUnit
+
+/**
+ * Keeps the database file compact and its query plans up to date.
+ * Meant to be run while the app isn't used, the first run rewriting the whole database once.
+ */
+class DatabaseMaintenance(private val database: Database) {
+
+    /**
+     * @param isStopped checked between vacuum slices, the vacuum ends as soon as it returns true
+     */
+    fun run(isStopped: () -> Boolean = { false }): MaintenanceResult {
+        val start = System.nanoTime()
+        val db = database.openHelper.writableDatabase
+
+        val pageSize = db.pragma("page_size")
+        val pageCount = db.pragma("page_count")
+
+        if (db.pragma("auto_vacuum") != AUTO_VACUUM_INCREMENTAL) {
+            // the auto vacuum mode of an existing database is only changed by a full vacuum
+            db.execSQL("PRAGMA auto_vacuum = INCREMENTAL")
+            db.execSQL("VACUUM")
+        } else {
+            // free pages are released by slices so writers are never blocked for long
+            while (!isStopped() && db.pragma("freelist_count") > 0) {
+                db.query("PRAGMA incremental_vacuum($VACUUM_SLICE_PAGES)").use { it.stepAll() }
+            }
+        }
+
+        // statistics are computed the first time, then only refreshed when the planner needs them
+        if (db.hasStatistics()) {
+            db.query("PRAGMA optimize").use { it.stepAll() }
+        } else {
+            db.execSQL("ANALYZE")
+        }
+
+        db.query("PRAGMA wal_checkpoint(TRUNCATE)").use { it.stepAll() }
+
+        return MaintenanceResult(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                (pageCount - db.pragma("page_count")) * pageSize)
+    }
+
+    private fun SupportSQLiteDatabase.pragma(name: String): Long = query("PRAGMA $name").use {
+        if (it.moveToFirst()) it.getLong(0) else 0L
+    }
+
+    private fun SupportSQLiteDatabase.hasStatistics() =
+            query("Select 1 From sqlite_master Where type = 'table' And name = 'sqlite_stat1'").use { it.moveToFirst() }
+
+    // some pragmas do their work one row at a time
+    private fun Cursor.stepAll() {
+        while (moveToNext()) continue
+    }
+
+    companion object {
+        private const val AUTO_VACUUM_INCREMENTAL = 2L
+
+        private const val VACUUM_SLICE_PAGES = 256
+    }
+}
+
+/**
+ * @param duration time spent, in milliseconds
+ * @param bytes size the database file has shrunk
+ */
+data class MaintenanceResult(val duration: Long, val bytes: Long)
@@ -8,6 +8,7 @@ val dbModule = module {
     single(createdAtStart = true) {
         Room.databaseBuilder(get(), Database::class.java, "readrops-db")
                 .addMigrations(*Database_Migrations.build())
+                .addCallback(Database.CALLBACK)
                 .build()
     }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.readrops.db
+
+import androidx.sqlite.db.SupportSQLiteDatabase
+
+/**
+ * Keep [com.readrops.db.entities.FeedCounters] up to date, whatever the way items are inserted, updated or deleted.
+ * Like [ItemBodyTriggers], they are created with the database and by the migrations.
+ */
+object FeedCountersTriggers {
+
+    private val TRIGGERS = arrayOf(
+            "CREATE TRIGGER IF NOT EXISTS feed_counters_feed_insert AFTER INSERT ON Feed BEGIN " +
+                    "INSERT OR IGNORE INTO FeedCounters (feed_id) VALUES (new.id); END",
+
+            "CREATE TRIGGER IF NOT EXISTS feed_counters_insert AFTER INSERT ON Item BEGIN " +
+                    "${add("new", "+")} END",
+
+            "CREATE TRIGGER IF NOT EXISTS feed_counters_delete AFTER DELETE ON Item BEGIN " +
+                    "${add("old", "-")} END",
+
+            "CREATE TRIGGER IF NOT EXISTS feed_counters_update AFTER UPDATE OF read, starred, read_it_later, feed_id ON Item " +
+                    "WHEN old.read != new.read OR old.starred != new.starred OR old.read_it_later != new.read_it_later " +
+                    "OR old.feed_id != new.feed_id BEGIN " +
+                    "${add("old", "-")} ${add("new", "+")} END"
+    )
+
+    /**
+     * Counts the items of every feed, to be used once when the counters table is created
+     */
+    const val COUNT_ITEMS = "INSERT OR REPLACE INTO FeedCounters (feed_id, unread_count, starred_count, read_later_count) " +
+            "SELECT Feed.id, ifnull(sum(Item.read = 0), 0), ifnull(sum(Item.starred), 0), ifnull(sum(Item.read_it_later), 0) " +
+            "FROM Feed LEFT JOIN Item ON Item.feed_id = Feed.id GROUP BY Feed.id"
+
+    @JvmStatic
+    fun create(db: SupportSQLiteDatabase) {
+        TRIGGERS.forEach { db.execSQL(it) }
+    }
+
+    private fun add(row: String, operator: String) = "UPDATE FeedCounters SET " +
+            "unread_count = unread_count $operator ($row.read = 0), " +
+            "starred_count = starred_count $operator $row.starred, " +
+            "read_later_count = read_later_count $operator $row.read_it_later " +
+            "WHERE feed_id = $row.feed_id;"
+}
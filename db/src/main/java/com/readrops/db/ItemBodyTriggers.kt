@@ -0,0 +1,39 @@
+package com.readrops.db
+
+import androidx.sqlite.db.SupportSQLiteDatabase
+
+/**
+ * Keep [com.readrops.db.entities.ItemBody] reference counts up to date, whatever the way items are
+ * inserted, updated or deleted, cascades included, and delete a body when its last item is deleted.
+ *
+ * Room can't declare triggers on entities, they are created with the database and by the migrations.
+ * Recreating the Item table in a migration drops them, they must be created again afterwards.
+ */
+object ItemBodyTriggers {
+
+    private val TRIGGERS = arrayOf(
+            "CREATE TRIGGER IF NOT EXISTS item_body_insert AFTER INSERT ON Item BEGIN " +
+                    "${increment("new.description_hash")} ${increment("new.content_hash")} END",
+
+            "CREATE TRIGGER IF NOT EXISTS item_body_delete AFTER DELETE ON Item BEGIN " +
+                    "${decrement("old.description_hash")} ${decrement("old.content_hash")} " +
+                    "${deleteUnreferenced("old.description_hash", "old.content_hash")} END",
+
+            "CREATE TRIGGER IF NOT EXISTS item_body_update AFTER UPDATE OF description_hash, content_hash ON Item BEGIN " +
+                    "${increment("new.description_hash")} ${increment("new.content_hash")} " +
+                    "${decrement("old.description_hash")} ${decrement("old.content_hash")} " +
+                    "${deleteUnreferenced("old.description_hash", "old.content_hash")} END"
+    )
+
+    @JvmStatic
+    fun create(db: SupportSQLiteDatabase) {
+        TRIGGERS.forEach { db.execSQL(it) }
+    }
+
+    private fun increment(hash: String) = "UPDATE ItemBody SET ref_count = ref_count + 1 WHERE hash = $hash;"
+
+    private fun decrement(hash: String) = "UPDATE ItemBody SET ref_count = ref_count - 1 WHERE hash = $hash;"
+
+    private fun deleteUnreferenced(vararg hashes: String) =
+            "DELETE FROM ItemBody WHERE hash IN (${hashes.joinToString()}) AND ref_count <= 0;"
+}
@@ -0,0 +1,28 @@
+package com.readrops.db
+
+import androidx.sqlite.db.SupportSQLiteDatabase
+
+/**
+ * Keep [com.readrops.db.entities.ItemSearch] in sync with the Item table, cascades included.
+ * Like [ItemBodyTriggers], they are created with the database and by the migrations.
+ */
+object ItemSearchTriggers {
+
+    private val TRIGGERS = arrayOf(
+            "CREATE TRIGGER IF NOT EXISTS item_search_insert AFTER INSERT ON Item BEGIN " +
+                    "INSERT INTO ItemSearch (rowid, title, clean_description, author) " +
+                    "VALUES (new.id, new.title, new.clean_description, new.author); END",
+
+            "CREATE TRIGGER IF NOT EXISTS item_search_delete AFTER DELETE ON Item BEGIN " +
+                    "DELETE FROM ItemSearch WHERE rowid = old.id; END",
+
+            "CREATE TRIGGER IF NOT EXISTS item_search_update AFTER UPDATE OF title, clean_description, author ON Item BEGIN " +
+                    "UPDATE ItemSearch SET title = new.title, clean_description = new.clean_description, " +
+                    "author = new.author WHERE rowid = new.id; END"
+    )
+
+    @JvmStatic
+    fun create(db: SupportSQLiteDatabase) {
+        TRIGGERS.forEach { db.execSQL(it) }
+    }
+}
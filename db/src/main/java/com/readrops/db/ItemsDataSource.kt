@@ -0,0 +1,82 @@
+package com.readrops.db
+
+import androidx.paging.DataSource
+import androidx.paging.ItemKeyedDataSource
+import androidx.room.InvalidationTracker
+import com.readrops.db.pojo.ItemWithFeed
+import com.readrops.db.queries.ItemsKey
+import com.readrops.db.queries.ItemsPage
+import com.readrops.db.queries.ItemsQueryBuilder
+import com.readrops.db.queries.PageDirection
+import com.readrops.db.queries.QueryFilters
+
+/**
+ * Pages of the items list, each one starting from the sort values of its neighbour item
+ * so loading a page costs the same at any depth of the list.
+ * Invalidated by any change of the tables the items list is read from.
+ */
+class ItemsDataSource(
+        private val database: Database,
+        private val queryFilters: QueryFilters,
+        private val separateState: Boolean,
+) : ItemKeyedDataSource<ItemsKey, ItemWithFeed>() {
+
+    private val observer = object : InvalidationTracker.Observer(OBSERVED_TABLES) {
+        override fun onInvalidated(tables: Set<String>) = invalidate()
+    }
+
+    init {
+        database.invalidationTracker.addObserver(observer)
+        addInvalidatedCallback { database.invalidationTracker.removeObserver(observer) }
+    }
+
+    override fun loadInitial(params: LoadInitialParams<ItemsKey>, callback: LoadInitialCallback<ItemWithFeed>) {
+        val key = params.requestedInitialKey
+        if (key == null) {
+            callback.onResult(load(ItemsPage(null, params.requestedLoadSize)))
+            return
+        }
+
+        // the list is reloaded around the last item the user has seen, half of it preceding this item,
+        // otherwise the recycler view scrolls down to keep the loaded items at the same position
+        val before = load(ItemsPage(key, params.requestedLoadSize / 2, PageDirection.BEFORE))
+        val from = load(ItemsPage(key, params.requestedLoadSize - before.size, PageDirection.FROM))
+
+        callback.onResult(before + from)
+    }
+
+    override fun loadAfter(params: LoadParams<ItemsKey>, callback: LoadCallback<ItemWithFeed>) {
+        callback.onResult(load(ItemsPage(params.key, params.requestedLoadSize, PageDirection.AFTER)))
+    }
+
+    override fun loadBefore(params: LoadParams<ItemsKey>, callback: LoadCallback<ItemWithFeed>) {
+        callback.onResult(load(ItemsPage(params.key, params.requestedLoadSize, PageDirection.BEFORE)))
+    }
+
+    override fun getKey(item: ItemWithFeed) = item.key
+
+    private fun load(page: ItemsPage): List<ItemWithFeed> {
+        val items = database.itemDao().selectItems(ItemsQueryBuilder.buildItemsPageQuery(queryFilters, separateState, page))
+
+        // items preceding the key are read backwards
+        return if (page.direction == PageDirection.BEFORE) items.asReversed() else items
+    }
+
+    /**
+     * @param queryFilters copied, the filters can change before the list is invalidated
+     */
+    class Factory(
+            private val database: Database,
+            queryFilters: QueryFilters,
+            private val separateState: Boolean,
+    ) : DataSource.Factory<ItemsKey, ItemWithFeed>() {
+
+        private val queryFilters = queryFilters.copy()
+
+        override fun create(): DataSource<ItemsKey, ItemWithFeed> = ItemsDataSource(database, queryFilters, separateState)
+    }
+
+    companion object {
+        private val OBSERVED_TABLES = arrayOf("Item", "Feed", "Folder", "ItemState")
+    }
+}
@@ -0,0 +1,88 @@
+package com.readrops.db
+
+import android.database.Cursor
+import androidx.sqlite.db.SupportSQLiteDatabase
+import androidx.sqlite.db.SupportSQLiteStatement
+import com.readrops.db.entities.ItemBody
+import dev.matrix.roomigrant.rules.OnMigrationEndRule
+import dev.matrix.roomigrant.rules.OnMigrationStartRule
+
+/**
+ * Custom steps run around the generated migrations
+ */
+class MigrationRules {
+
+    /**
+     * Items are unique by feed and guid from version 4, older duplicates would make the index creation fail.
+     * Item description and content are moved to ItemBody, they are put aside before the Item table is rebuilt without them.
+     * They are staged in a regular table, not a temporary one, as Android keeps temporary tables in memory.
+     * Existing items are indexed in ItemSearch by title, description and author, their plain text content being
+     * only computed when items are parsed.
+     * Feed counters are computed once, then maintained by their triggers.
+     */
+    @OnMigrationStartRule(version1 = 3, version2 = 4)
+    fun migrate_3_4_before(db: SupportSQLiteDatabase, version1: Int, version2: Int) {
+        db.execSQL("Delete From Item Where guid is not null And id Not In " +
+                "(Select min(id) From Item Where guid is not null Group By feed_id, guid)")
+
+        db.execSQL("Create Table item_body_migration (id INTEGER PRIMARY KEY, description TEXT, content TEXT)")
+        db.execSQL("Insert Into item_body_migration Select id, description, content From Item " +
+                "Where description is not null Or content is not null")
+    }
+
+    @OnMigrationEndRule(version1 = 3, version2 = 4)
+    fun migrate_3_4_after(db: SupportSQLiteDatabase, version1: Int, version2: Int) {
+        ItemBodyTriggers.create(db)
+        ItemSearchTriggers.create(db)
+
+        db.execSQL("Insert Into ItemSearch (rowid, title, clean_description, author) " +
+                "Select id, title, clean_description, author From Item")
+
+        FeedCountersTriggers.create(db)
+        db.execSQL(FeedCountersTriggers.COUNT_ITEMS)
+
+        val insertBody = db.compileStatement("Insert Or Ignore Into ItemBody (hash, text, ref_count) Values (?, ?, 0)")
+        val updateItem = db.compileStatement("Update Item set description_hash = ?, content_hash = ? Where id = ?")
+        var lastId = 0
+
+        do {
+            val cursor = db.query("Select id, description, content From item_body_migration Where id > ? " +
+                    "Order By id Limit $BODY_MIGRATION_BATCH_SIZE", arrayOf(lastId))
+            val count = cursor.count
+
+            cursor.use {
+                while (it.moveToNext()) {
+                    lastId = it.getInt(0)
+
+                    // the update trigger counts the new references
+                    bindBodyHash(updateItem, 1, insertBody, it.getStringOrNull(1))
+                    bindBodyHash(updateItem, 2, insertBody, it.getStringOrNull(2))
+                    updateItem.bindLong(3, lastId.toLong())
+                    updateItem.executeUpdateDelete()
+                }
+            }
+        } while (count == BODY_MIGRATION_BATCH_SIZE)
+
+        db.execSQL("Drop Table item_body_migration")
+    }
+
+    private fun bindBodyHash(statement: SupportSQLiteStatement, index: Int, insertBody: SupportSQLiteStatement, text: String?) {
+        if (text == null) {
+            statement.bindNull(index)
+            return
+        }
+
+        val hash = ItemBody.hash(text)
+        insertBody.bindString(1, hash)
+        insertBody.bindBlob(2, CompressedTextConverter.fromText(text)!!)
+        insertBody.executeInsert()
+
+        statement.bindString(index, hash)
+    }
+
+    private fun Cursor.getStringOrNull(column: Int) = if (isNull(column)) null else getString(column)
+
+    companion object {
+        private const val BODY_MIGRATION_BATCH_SIZE = 500
+    }
+}
@@ -39,4 +39,11 @@ interface AccountDao : BaseDao<Account> {
 
     @Query("Update Account set notifications_enabled = :enabled Where id = :accountId")
     fun updateNotificationState(accountId: Int, enabled: Boolean): Completable
+
+    @Query("Update Account set retention_max_age = :maxAge, retention_max_items = :maxItems, " +
+            "retention_keep_starred = :keepStarred Where id = :accountId")
+    fun updateRetentionPolicy(accountId: Int, maxAge: Int, maxItems: Int, keepStarred: Boolean): Completable
+
+    @Query("Update Account set min_refresh_interval = :interval Where id = :accountId")
+    fun updateMinRefreshInterval(accountId: Int, interval: Int): Completable
 }
\ No newline at end of file
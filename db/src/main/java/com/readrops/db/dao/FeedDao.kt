@@ -6,7 +6,9 @@ import androidx.room.Query
 import androidx.room.RoomWarnings
 import androidx.room.Transaction
 import com.readrops.db.entities.Feed
+import com.readrops.db.entities.FeedCounters
 import com.readrops.db.entities.account.Account
+import com.readrops.db.pojo.FeedWithCounters
 import com.readrops.db.pojo.FeedWithFolder
 import io.reactivex.Completable
 import io.reactivex.Single
@@ -19,9 +21,15 @@ abstract class FeedDao : BaseDao<Feed> {
     @Query("Select * from Feed Where account_id = :accountId order by name ASC")
     abstract fun getFeeds(accountId: Int): List<Feed>
 
+    @Query("Select * from Feed Where account_id = :accountId And next_refresh <= :now And retry_after <= :now order by name ASC")
+    abstract fun getDueFeeds(accountId: Int, now: Long): List<Feed>
+
     @get:Query("Select * from Feed Order By name ASC")
     abstract val allFeeds: LiveData<List<Feed>>
 
+    @Query("Select * from Feed")
+    abstract fun selectAll(): List<Feed>
+
     @Query("Select * from Feed Where id = :feedId")
     abstract fun getFeedById(feedId: Int): Feed
 
@@ -40,14 +48,21 @@ abstract class FeedDao : BaseDao<Feed> {
     @Query("Select id from Feed Where remoteId = :remoteId And account_id = :accountId")
     abstract fun getFeedIdByRemoteId(remoteId: String, accountId: Int): Int
 
-    @Query("Select * from Feed Where folder_id = :folderId")
-    abstract fun getFeedsByFolder(folderId: Int): List<Feed>
+    @Query("Select * from Feed Left Join FeedCounters On Feed.id = FeedCounters.feed_id Where account_id = :accountId order by name ASC")
+    abstract fun getFeedsWithCounters(accountId: Int): List<FeedWithCounters>
+
+    @Query("Select FeedCounters.* From FeedCounters Inner Join Feed On Feed.id = FeedCounters.feed_id Where account_id = :accountId")
+    abstract fun getFeedCounters(accountId: Int): LiveData<List<FeedCounters>>
 
-    @Query("Select * from Feed Where account_id = :accountId And folder_id is null")
-    abstract fun getFeedsWithoutFolder(accountId: Int): List<Feed>
+    // a feed answering without body digest keeps the last one
+    @Query("Update Feed set etag = :etag, last_modified = :lastModified, body_digest = ifnull(:bodyDigest, body_digest) Where id = :feedId")
+    abstract fun updateHeaders(etag: String?, lastModified: String?, bodyDigest: String?, feedId: Int)
 
-    @Query("Update Feed set etag = :etag, last_modified = :lastModified Where id = :feedId")
-    abstract fun updateHeaders(etag: String, lastModified: String, feedId: Int)
+    @Query("Update Feed set next_refresh = :nextRefresh Where id = :feedId")
+    abstract fun updateNextRefresh(feedId: Int, nextRefresh: Long)
+
+    @Query("Update Feed set failure_count = :failureCount, retry_after = :retryAfter Where id = :feedId")
+    abstract fun updateFailureState(feedId: Int, failureCount: Int, retryAfter: Long)
 
     @Query("Update Feed set name = :feedName, url = :feedUrl, folder_id = :folderId Where id = :feedId")
     abstract fun updateFeedFields(feedId: Int, feedName: String, feedUrl: String, folderId: Int)
@@ -58,10 +73,20 @@ abstract class FeedDao : BaseDao<Feed> {
     @Query("Update Feed set text_color = :textColor, background_color = :bgColor Where id = :feedId")
     abstract fun updateColors(feedId: Int, textColor: Int, bgColor: Int)
 
+    /**
+     * Update the colors of all the given feeds in a single transaction
+     */
+    @Transaction
+    open fun updateColors(feeds: List<Feed>) {
+        for (feed in feeds) {
+            updateColors(feed.id, feed.textColor, feed.backgroundColor)
+        }
+    }
+
     @SuppressWarnings(RoomWarnings.CURSOR_MISMATCH)
     @Query("Select Feed.name as feed_name, Feed.id as feed_id, Folder.name as folder_name, Folder.id as folder_id, Folder.remoteId as folder_remoteId, Folder.account_id as folder_account_id," +
             "Feed.description as feed_description, Feed.icon_url as feed_icon_url, Feed.url as feed_url, Feed.folder_id as feed_folder_id, Feed.text_color as feed_text_color, Feed.background_color as feed_background_color" +
-            ", Feed.account_id as feed_account_id, Feed.notification_enabled as feed_notification_enabled, Feed.siteUrl as feed_siteUrl, Feed.remoteId as feed_remoteId from Feed Left Join Folder on Feed.folder_id = Folder.id Where Feed.account_id = :accountId Order by Feed.name")
+            ", Feed.account_id as feed_account_id, Feed.notification_enabled as feed_notification_enabled, Feed.siteUrl as feed_siteUrl, Feed.remoteId as feed_remoteId, Feed.failure_count as feed_failure_count, Feed.retry_after as feed_retry_after, Feed.retention_max_age as feed_retention_max_age, Feed.retention_max_items as feed_retention_max_items, Feed.retention_keep_starred as feed_retention_keep_starred, Feed.min_refresh_interval as feed_min_refresh_interval from Feed Left Join Folder on Feed.folder_id = Folder.id Where Feed.account_id = :accountId Order by Feed.name")
     abstract fun getAllFeedsWithFolder(accountId: Int): LiveData<List<FeedWithFolder>>
 
     @SuppressWarnings(RoomWarnings.CURSOR_MISMATCH)
@@ -80,6 +105,19 @@ abstract class FeedDao : BaseDao<Feed> {
     @Query("Select id From Folder Where remoteId = :remoteId And account_id = :accountId")
     abstract fun getRemoteFolderLocalId(remoteId: String, accountId: Int): Int
 
+    /**
+     * Null values fall back to the account retention policy
+     */
+    @Query("Update Feed set retention_max_age = :maxAge, retention_max_items = :maxItems, " +
+            "retention_keep_starred = :keepStarred Where id = :feedId")
+    abstract fun updateRetentionPolicy(feedId: Int, maxAge: Int?, maxItems: Int?, keepStarred: Boolean?): Completable
+
+    /**
+     * A null interval falls back to the account one
+     */
+    @Query("Update Feed set min_refresh_interval = :interval Where id = :feedId")
+    abstract fun updateMinRefreshInterval(feedId: Int, interval: Int?): Completable
+
     @Query("Update Feed set notification_enabled = :enabled Where id = :feedId")
     abstract fun updateFeedNotificationState(feedId: Int, enabled: Boolean): Completable
 
@@ -6,6 +6,7 @@ import androidx.room.Query
 import androidx.room.Transaction
 import com.readrops.db.entities.Folder
 import com.readrops.db.entities.account.Account
+import com.readrops.db.pojo.FolderCounters
 import com.readrops.db.pojo.FolderWithFeedCount
 import java.util.ArrayList
 
@@ -21,6 +22,11 @@ abstract class FolderDao : BaseDao<Folder> {
     @Query("Select * from Folder Where account_id = :accountId Order By name ASC")
     abstract fun getFolders(accountId: Int): List<Folder>
 
+    @Query("Select folder_id, sum(unread_count) as unread_count, sum(starred_count) as starred_count, " +
+            "sum(read_later_count) as read_later_count From FeedCounters Inner Join Feed On Feed.id = FeedCounters.feed_id " +
+            "Where account_id = :accountId And folder_id is not null Group By folder_id")
+    abstract fun getFolderCounters(accountId: Int): LiveData<List<FolderCounters>>
+
     @Query("Update Folder set name = :name Where remoteId = :remoteFolderId And account_id = :accountId")
     abstract fun updateName(remoteFolderId: String, accountId: Int, name: String)
 
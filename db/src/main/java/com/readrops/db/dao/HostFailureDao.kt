@@ -0,0 +1,20 @@
+package com.readrops.db.dao
+
+import androidx.room.Dao
+import androidx.room.Insert
+import androidx.room.OnConflictStrategy
+import androidx.room.Query
+import com.readrops.db.entities.HostFailure
+
+@Dao
+interface HostFailureDao {
+
+    @Query("Select * From HostFailure")
+    fun getHostFailures(): List<HostFailure>
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    fun upsert(hostFailure: HostFailure)
+
+    @Query("Delete From HostFailure Where host = :host")
+    fun delete(host: String)
+}
@@ -1,61 +1,172 @@
 package com.readrops.db.dao
 
 import androidx.lifecycle.LiveData
-import androidx.paging.DataSource
 import androidx.room.Dao
+import androidx.room.Insert
+import androidx.room.OnConflictStrategy
 import androidx.room.Query
 import androidx.room.RawQuery
+import androidx.room.Transaction
 import androidx.sqlite.db.SupportSQLiteQuery
-import com.readrops.db.entities.Feed
-import com.readrops.db.entities.Folder
 import com.readrops.db.entities.Item
+import com.readrops.db.entities.ItemBody
 import com.readrops.db.entities.ItemState
 import com.readrops.db.pojo.ItemWithFeed
 import com.readrops.db.pojo.StarItem
 import io.reactivex.Completable
 
 @Dao
-interface ItemDao : BaseDao<Item> {
+abstract class ItemDao : BaseDao<Item> {
 
-    @RawQuery(observedEntities = [Item::class, Folder::class, Feed::class, ItemState::class])
-    fun selectAll(query: SupportSQLiteQuery): DataSource.Factory<Int?, ItemWithFeed>
+    @RawQuery
+    abstract fun selectItems(query: SupportSQLiteQuery): List<ItemWithFeed>
 
     @Query("Select * From Item Where id = :itemId")
-    fun select(itemId: Int): Item
-
-    @Query("Select case When :guid In (Select guid From Item Inner Join Feed on Item.feed_id = Feed.id and account_id = :accountId) Then 1 else 0 end")
-    fun itemExists(guid: String, accountId: Int): Boolean
+    abstract fun select(itemId: Int): Item
+
+    @Query("Select guid From Item Where feed_id = :feedId And guid is not null")
+    abstract fun getGuids(feedId: Int): List<String>
+
+    /**
+     * @return the row id of each item, -1 if an item with the same feed and guid already exists
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    abstract fun insertOrIgnore(items: List<Item>): List<Long>
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    abstract fun insertBodiesOrIgnore(bodies: List<ItemBody>)
+
+    @Query("Delete From ItemBody Where ref_count = 0 And hash In (:hashes)")
+    abstract fun deleteUnreferencedBodies(hashes: List<String>)
+
+    // the other columns are filled by ItemSearchTriggers
+    @Query("Update ItemSearch set content = :content Where rowid = :itemId")
+    abstract fun setSearchContent(itemId: Int, content: String)
+
+    /**
+     * Insert in a single transaction the items which don't already exist,
+     * their description and content being stored as shared [ItemBody] and their plain text indexed for search.
+     * Items without guid get one from [guidFallback], as null guids are never considered equal.
+     * @return the inserted items, with their id set
+     */
+    @Transaction
+    open fun insertNewItems(items: List<Item>): List<Item> {
+        val bodies = hashMapOf<String, ItemBody>()
+
+        for (item in items) {
+            if (item.guid == null) item.guid = guidFallback(item)
+
+            item.descriptionHash = bodies.putText(item.description)
+            item.contentHash = bodies.putText(item.content)
+        }
+
+        // bodies are inserted first, their reference count is then increased by each item insertion
+        insertBodiesOrIgnore(bodies.values.toList())
+        val ids = insertOrIgnore(items)
+
+        val newItems = arrayListOf<Item>()
+        val ignoredHashes = hashSetOf<String>()
+
+        for ((index, item) in items.withIndex()) {
+            if (ids[index] != -1L) {
+                item.id = ids[index].toInt()
+                item.plainText?.let { setSearchContent(item.id, it) }
+                newItems += item
+            } else {
+                item.descriptionHash?.let { ignoredHashes += it }
+                item.contentHash?.let { ignoredHashes += it }
+            }
+        }
+
+        // bodies only referenced by ignored items
+        ignoredHashes.chunked(MAX_QUERY_ARGUMENTS).forEach { deleteUnreferencedBodies(it) }
+
+        return newItems
+    }
+
+    /**
+     * @return the item remote id, else its link, else a hash of its title
+     */
+    private fun guidFallback(item: Item): String = item.remoteId ?: item.link ?: ItemBody.hash(item.title.orEmpty())
+
+    private fun MutableMap<String, ItemBody>.putText(text: String?): String? {
+        if (text == null) return null
+
+        val hash = ItemBody.hash(text)
+        getOrPut(hash) { ItemBody(hash, text) }
+
+        return hash
+    }
+
+    /**
+     * @return up to [limit] items of the feed published before [olderThan] which can be pruned, the oldest first
+     */
+    @Query("Select id From Item Where feed_id = :feedId And pub_date < :olderThan $PRUNABLE_ITEM Order By pub_date Limit :limit")
+    abstract fun getPrunableItemsOlderThan(feedId: Int, accountId: Int, olderThan: Long, keepStarred: Boolean, limit: Int): List<Int>
+
+    /**
+     * @return up to [limit] items of the feed which can be pruned, beyond its [maxItems] newest ones.
+     * Items which can't be pruned don't count in [maxItems].
+     */
+    @Query("Select id From Item Where feed_id = :feedId $PRUNABLE_ITEM Order By pub_date DESC Limit :limit Offset :maxItems")
+    abstract fun getPrunableItemsBeyond(feedId: Int, accountId: Int, maxItems: Int, keepStarred: Boolean, limit: Int): List<Int>
+
+    // items never inserted again by the local account
+    @Query("Update Feed set pruned_until = max(pruned_until, ifnull((Select max(pub_date) From Item Where id In (:itemIds)), 0)) Where id = :feedId")
+    abstract fun updatePrunedUntil(feedId: Int, itemIds: List<Int>)
+
+    @Query("Delete From Item Where id In (:itemIds)")
+    abstract fun deleteByIds(itemIds: List<Int>)
+
+    /**
+     * Delete the given items of the feed in a single transaction, remembering the most recent date pruned
+     */
+    @Transaction
+    open fun pruneItems(feedId: Int, itemIds: List<Int>) {
+        updatePrunedUntil(feedId, itemIds)
+        deleteByIds(itemIds)
+    }
+
+    @Query("Select pub_date From Item Where feed_id = :feedId Order By pub_date DESC Limit :count")
+    abstract fun getLatestPubDates(feedId: Int, count: Int): List<Long>
 
     @Query("Select case When :remoteId In (Select remoteId from Item) And :feedId In (Select feed_id From Item) Then 1 else 0 end")
-    fun remoteItemExists(remoteId: String, feedId: Int): Boolean
+    abstract fun remoteItemExists(remoteId: String, feedId: Int): Boolean
 
     @Query("Select * From Item Where remoteId = :remoteId And feed_id = :feedId")
-    fun selectByRemoteId(remoteId: String, feedId: Int): Item
+    abstract fun selectByRemoteId(remoteId: String, feedId: Int): Item
 
     @Query("Update Item Set read = :read Where id = :itemId")
-    fun setReadState(itemId: Int, read: Boolean): Completable
+    abstract fun setReadState(itemId: Int, read: Boolean): Completable
 
     @Query("Update Item set starred = :starred Where id = :itemId")
-    fun setStarState(itemId: Int, starred: Boolean): Completable
+    abstract fun setStarState(itemId: Int, starred: Boolean): Completable
 
     @Query("Update Item set read = :readState Where feed_id In (Select id From Feed Where account_id = :accountId)")
-    fun setAllItemsReadState(readState: Int, accountId: Int): Completable
+    abstract fun setAllItemsReadState(readState: Int, accountId: Int): Completable
 
     @Query("Update Item set read = :readState Where feed_id = :feedId")
-    fun setAllFeedItemsReadState(feedId: Int, readState: Int): Completable
+    abstract fun setAllFeedItemsReadState(feedId: Int, readState: Int): Completable
 
     @Query("Update Item set read_it_later = :readLater Where id = :itemId")
-    fun setReadItLater(readLater: Boolean, itemId: Int): Completable
-
-    @Query("Select count(*) From Item Where feed_id = :feedId And read = 0")
-    fun getUnreadCount(feedId: Int): Int
+    abstract fun setReadItLater(readLater: Boolean, itemId: Int): Completable
 
     @RawQuery(observedEntities = [Item::class, ItemState::class])
-    fun getItemById(query: SupportSQLiteQuery): LiveData<ItemWithFeed>
+    abstract fun getItemById(query: SupportSQLiteQuery): LiveData<ItemWithFeed>
 
     @Query("Select Item.guid, Feed.remoteId as feedRemoteId From Item Inner Join Feed On Item.feed_id = Feed.id Where Item.remoteId In (:remoteIds) And account_id = :accountId")
-    fun getStarChanges(remoteIds: List<String>, accountId: Int): List<StarItem>
+    abstract fun getStarChanges(remoteIds: List<String>, accountId: Int): List<StarItem>
 
     @Query("Update Item set read = :read, starred = :starred Where remoteId = :remoteId")
-    fun setReadAndStarState(remoteId: String, read: Boolean, starred: Boolean)
+    abstract fun setReadAndStarState(remoteId: String, read: Boolean, starred: Boolean)
+
+    companion object {
+        // SQLite default host parameters limit is 999
+        private const val MAX_QUERY_ARGUMENTS = 500
+
+        // items with a pending state change, starred or read later items when kept, are never pruned
+        private const val PRUNABLE_ITEM = "And id Not In (Select id From ItemStateChange) " +
+                "And (:keepStarred = 0 Or (starred = 0 And read_it_later = 0 And (remoteId is null " +
+                "Or remoteId Not In (Select remote_id From ItemState Where starred = 1 And account_id = :accountId))))"
+    }
 }
\ No newline at end of file
@@ -25,7 +25,8 @@ interface ItemStateChangeDao : BaseDao<ItemStateChange> {
             "case When ItemState.remote_id is NULL Or ItemState.starred = 1 Then 1 else 0 End starred," +
             "ItemStateChange.read_change, ItemStateChange.star_change, Item.remoteId " +
             "From ItemStateChange Inner Join Item On ItemStateChange.id = Item.id " +
-            "Left Join ItemState On ItemState.remote_id = Item.remoteId Where ItemStateChange.account_id = :accountId")
+            "Left Join ItemState On ItemState.remote_id = Item.remoteId And ItemState.account_id = ItemStateChange.account_id " +
+            "Where ItemStateChange.account_id = :accountId")
     fun getItemStateChanges(accountId: Int): List<ItemReadStarState>
 
     @Query("Select Item.read, Item.starred," +
@@ -0,0 +1,17 @@
+package com.readrops.db.dao
+
+import androidx.room.Dao
+import androidx.room.Insert
+import androidx.room.OnConflictStrategy
+import androidx.room.Query
+import com.readrops.db.entities.SiteIcon
+
+@Dao
+interface SiteIconDao {
+
+    @Query("Select * From SiteIcon Where host = :host")
+    fun getSiteIcon(host: String): SiteIcon?
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    fun upsert(siteIcon: SiteIcon)
+}
@@ -22,10 +22,21 @@ data class Feed(
         @ColumnInfo(name = "icon_url") var iconUrl: String? = null,
         var etag: String? = null,
         @ColumnInfo(name = "last_modified") var lastModified: String? = null,
+        @ColumnInfo(name = "body_digest") var bodyDigest: String? = null,
+        // seconds, null to use the account value
+        @ColumnInfo(name = "min_refresh_interval") var minRefreshInterval: Int? = null,
+        @ColumnInfo(name = "next_refresh", defaultValue = "0") var nextRefresh: Long = 0,
+        @ColumnInfo(name = "failure_count", defaultValue = "0") var failureCount: Int = 0,
+        @ColumnInfo(name = "retry_after", defaultValue = "0") var retryAfter: Long = 0,
         @ColumnInfo(name = "folder_id", index = true) var folderId: Int? = null,
         var remoteId: String? = null,
         @ColumnInfo(name = "account_id", index = true) var accountId: Int = 0,
         @ColumnInfo(name = "notification_enabled", defaultValue = "1") var isNotificationEnabled: Boolean = false,
+        // retention policy overriding the account one, null to use the account value
+        @ColumnInfo(name = "retention_max_age") var retentionMaxAge: Int? = null,
+        @ColumnInfo(name = "retention_max_items") var retentionMaxItems: Int? = null,
+        @ColumnInfo(name = "retention_keep_starred") var isRetentionKeepStarred: Boolean? = null,
+        @ColumnInfo(name = "pruned_until", defaultValue = "0") var prunedUntil: Long = 0,
         @Ignore var unreadCount: Int = 0,
         @Ignore var remoteFolderId: String? = null,
 ) : Parcelable
\ No newline at end of file
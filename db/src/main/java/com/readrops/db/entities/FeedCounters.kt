@@ -0,0 +1,19 @@
+package com.readrops.db.entities
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import androidx.room.ForeignKey
+import androidx.room.PrimaryKey
+
+/**
+ * Item counters of a feed, maintained by [com.readrops.db.FeedCountersTriggers] so they are never counted again.
+ * Kept apart from [Feed] so reading items doesn't invalidate feed queries.
+ */
+@Entity(foreignKeys = [ForeignKey(entity = Feed::class, parentColumns = ["id"], childColumns = ["feed_id"],
+        onDelete = ForeignKey.CASCADE)])
+data class FeedCounters(
+        @PrimaryKey @ColumnInfo(name = "feed_id") val feedId: Int,
+        @ColumnInfo(name = "unread_count") val unreadCount: Int = 0,
+        @ColumnInfo(name = "starred_count") val starredCount: Int = 0,
+        @ColumnInfo(name = "read_later_count") val readLaterCount: Int = 0,
+)
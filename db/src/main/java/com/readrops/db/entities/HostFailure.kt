@@ -0,0 +1,16 @@
+package com.readrops.db.entities
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import androidx.room.PrimaryKey
+
+/**
+ * Network failures in a row of the local feeds of a host, kept between syncs
+ * so an unreachable host is not queried again before [retryAfter]
+ */
+@Entity
+data class HostFailure(
+        @PrimaryKey val host: String,
+        @ColumnInfo(name = "failure_count") val failureCount: Int = 0,
+        @ColumnInfo(name = "retry_after") val retryAfter: Long = 0,
+)
@@ -2,32 +2,49 @@ package com.readrops.db.entities
 
 import android.os.Parcelable
 import androidx.room.*
+import kotlinx.parcelize.IgnoredOnParcel
 import kotlinx.parcelize.Parcelize
 import org.joda.time.LocalDateTime
 
 @Parcelize
 @Entity(foreignKeys = [ForeignKey(entity = Feed::class, parentColumns = ["id"],
-        childColumns = ["feed_id"], onDelete = ForeignKey.CASCADE)])
+        childColumns = ["feed_id"], onDelete = ForeignKey.CASCADE)],
+        indices = [Index(value = ["feed_id", "guid"], unique = true),
+            // items list pages, read in date order from the date of their first item, for a feed or all the feeds
+            Index(value = ["feed_id", "read_it_later", "pub_date"]),
+            Index(value = ["read_it_later", "pub_date"]),
+            Index(value = ["feed_id", "starred"]),
+            // item states synchronization and ItemState joins
+            Index(value = ["remoteId"])])
 data class Item(
         @PrimaryKey(autoGenerate = true) var id: Int = 0,
         var title: String? = null,
-        var description: String? = null,
+        @Ignore var description: String? = null,
         @ColumnInfo(name = "clean_description") var cleanDescription: String? = null,
         var link: String? = null,
         @ColumnInfo(name = "image_link") var imageLink: String? = null,
         var author: String? = null,
         @ColumnInfo(name = "pub_date") var pubDate: LocalDateTime? = null,
-        var content: String? = null,
-        @ColumnInfo(name = "feed_id", index = true) var feedId: Int = 0,
-        @ColumnInfo(index = true) var guid: String? = null,
+        @Ignore var content: String? = null,
+        @ColumnInfo(name = "feed_id") var feedId: Int = 0,
+        var guid: String? = null,
         @ColumnInfo(name = "read_time") var readTime: Double = 0.0,
         @ColumnInfo(name = "read") var isRead: Boolean = false,
         @ColumnInfo(name = "starred") var isStarred: Boolean = false,
         @ColumnInfo(name = "read_it_later") var isReadItLater: Boolean = false,
         var remoteId: String? = null,
+        @ColumnInfo(name = "description_hash") var descriptionHash: String? = null,
+        @ColumnInfo(name = "content_hash") var contentHash: String? = null,
         @Ignore var feedRemoteId: String? = null,
 ) : Parcelable, Comparable<Item> {
 
+    /**
+     * Plain text of [text], indexed for search when the item is inserted
+     */
+    @Ignore
+    @IgnoredOnParcel
+    var plainText: String? = null
+
     val text
         get() = if (content != null) content else description
 
@@ -0,0 +1,41 @@
+package com.readrops.db.entities
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import androidx.room.PrimaryKey
+import androidx.room.TypeConverters
+import com.readrops.db.CompressedTextConverter
+import java.security.MessageDigest
+
+/**
+ * Item description or content, stored once whatever the number of items, feeds and accounts sharing it.
+ * Items reference it by [hash], [refCount] is maintained by [com.readrops.db.ItemBodyTriggers].
+ */
+@Entity
+data class ItemBody(
+        @PrimaryKey val hash: String,
+        @ColumnInfo(typeAffinity = ColumnInfo.BLOB)
+        @field:TypeConverters(CompressedTextConverter::class) val text: String,
+        @ColumnInfo(name = "ref_count") val refCount: Int = 0,
+) {
+
+    companion object {
+        private val HEX_DIGITS = "0123456789abcdef".toCharArray()
+
+        /**
+         * @return the SHA-256 of [text], as an hexadecimal string
+         */
+        @JvmStatic
+        fun hash(text: String): String {
+            val digest = MessageDigest.getInstance("SHA-256").digest(text.toByteArray())
+            val chars = CharArray(digest.size * 2)
+
+            for ((index, byte) in digest.withIndex()) {
+                chars[index * 2] = HEX_DIGITS[byte.toInt() shr 4 and 0x0F]
+                chars[index * 2 + 1] = HEX_DIGITS[byte.toInt() and 0x0F]
+            }
+
+            return String(chars)
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.readrops.db.entities
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import androidx.room.Fts4
+import androidx.room.FtsOptions
+import androidx.room.PrimaryKey
+
+/**
+ * Full-text index of the items, one row per item sharing its id.
+ * [title], [cleanDescription] and [author] are kept in sync by [com.readrops.db.ItemSearchTriggers],
+ * [content] is the plain text of the item body, only known when the item is inserted.
+ */
+@Fts4(tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity
+data class ItemSearch(
+        @PrimaryKey @ColumnInfo(name = "rowid") val rowId: Int,
+        val title: String? = null,
+        @ColumnInfo(name = "clean_description") val cleanDescription: String? = null,
+        val content: String? = null,
+        val author: String? = null,
+)
@@ -3,11 +3,13 @@ package com.readrops.db.entities
 import androidx.room.ColumnInfo
 import androidx.room.Entity
 import androidx.room.ForeignKey
+import androidx.room.Index
 import androidx.room.PrimaryKey
 import com.readrops.db.entities.account.Account
 
 @Entity(foreignKeys = [ForeignKey(entity = Account::class, parentColumns = ["id"],
-        childColumns = ["account_id"], onDelete = ForeignKey.CASCADE)])
+        childColumns = ["account_id"], onDelete = ForeignKey.CASCADE)],
+        indices = [Index(value = ["account_id"])])
 data class ItemStateChange(
         @PrimaryKey val id: Int = 0,
         @ColumnInfo(name = "read_change") val readChange: Boolean = false,
@@ -16,7 +18,8 @@ data class ItemStateChange(
 )
 
 @Entity(foreignKeys = [ForeignKey(entity = Account::class, parentColumns = ["id"],
-        childColumns = ["account_id"], onDelete = ForeignKey.CASCADE)])
+        childColumns = ["account_id"], onDelete = ForeignKey.CASCADE)],
+        indices = [Index(value = ["remote_id", "account_id"])])
 data class ItemState(
         @PrimaryKey(autoGenerate = true) val id: Int = 0,
         val read: Boolean = false,
@@ -0,0 +1,18 @@
+package com.readrops.db.entities
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import androidx.room.PrimaryKey
+
+/**
+ * Favicon and colors of a website, shared by all the feeds of its host whatever their account
+ */
+@Entity
+data class SiteIcon(
+        @PrimaryKey val host: String,
+        @ColumnInfo(name = "icon_url") val iconUrl: String? = null,
+        @ColumnInfo(name = "icon_file") val iconFile: String? = null,
+        @ColumnInfo(name = "text_color") val textColor: Int = 0,
+        @ColumnInfo(name = "background_color") val backgroundColor: Int = 0,
+        @ColumnInfo(name = "updated_at") val updatedAt: Long = 0,
+)
@@ -20,6 +20,10 @@ data class Account(
         var token: String? = null,
         var writeToken: String? = null, // TODO : see if there is a better solution to store specific service account fields
         @ColumnInfo(name = "notifications_enabled") var isNotificationsEnabled: Boolean = false,
+        @ColumnInfo(name = "retention_max_age", defaultValue = "0") var retentionMaxAge: Int = 0, // days, 0 for no limit
+        @ColumnInfo(name = "retention_max_items", defaultValue = "0") var retentionMaxItems: Int = 0, // per feed, 0 for no limit
+        @ColumnInfo(name = "retention_keep_starred", defaultValue = "1") var isRetentionKeepStarred: Boolean = true,
+        @ColumnInfo(name = "min_refresh_interval", defaultValue = "300") var minRefreshInterval: Int = 300, // seconds, 0 to always query feeds
         @Ignore var login: String? = null,
         @Ignore var password: String? = null,
 ) : Parcelable {
@@ -0,0 +1,10 @@
+package com.readrops.db.pojo
+
+import androidx.room.Embedded
+import com.readrops.db.entities.Feed
+import com.readrops.db.entities.FeedCounters
+
+data class FeedWithCounters(
+        @Embedded val feed: Feed,
+        @Embedded val counters: FeedCounters?,
+)
@@ -0,0 +1,13 @@
+package com.readrops.db.pojo
+
+import androidx.room.ColumnInfo
+
+/**
+ * Sum of the [com.readrops.db.entities.FeedCounters] of a folder feeds
+ */
+data class FolderCounters(
+        @ColumnInfo(name = "folder_id") val folderId: Int,
+        @ColumnInfo(name = "unread_count") val unreadCount: Int,
+        @ColumnInfo(name = "starred_count") val starredCount: Int,
+        @ColumnInfo(name = "read_later_count") val readLaterCount: Int,
+)
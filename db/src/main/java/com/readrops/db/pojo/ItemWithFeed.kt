@@ -3,8 +3,11 @@ package com.readrops.db.pojo
 import androidx.annotation.ColorInt
 import androidx.room.ColumnInfo
 import androidx.room.Embedded
+import androidx.room.TypeConverters
+import com.readrops.db.CompressedTextConverter
 import com.readrops.db.entities.Folder
 import com.readrops.db.entities.Item
+import com.readrops.db.queries.ItemsKey
 
 data class ItemWithFeed(
         @Embedded val item: Item,
@@ -15,4 +18,21 @@ data class ItemWithFeed(
         @ColumnInfo(name = "icon_url") val feedIconUrl: String?,
         @ColumnInfo(name = "siteUrl") val websiteUrl: String?,
         @Embedded(prefix = "folder_") val folder: Folder?,
-)
\ No newline at end of file
+        @ColumnInfo(name = "description", typeAffinity = ColumnInfo.BLOB)
+        @field:TypeConverters(CompressedTextConverter::class) val description: String? = null,
+        @ColumnInfo(name = "content", typeAffinity = ColumnInfo.BLOB)
+        @field:TypeConverters(CompressedTextConverter::class) val content: String? = null,
+        // sort values, only selected by the items list to locate its pages
+        @ColumnInfo(name = "sort_date") val sortDate: Long = 0,
+        @ColumnInfo(name = "search_title") val searchTitle: Int = 0,
+        @ColumnInfo(name = "search_rank") val searchRank: Int = 0,
+) {
+
+    val key get() = ItemsKey(sortDate, item.id, searchTitle, searchRank)
+
+    // item bodies are only selected, from ItemBody, when loading a single item
+    init {
+        if (description != null) item.description = description
+        if (content != null) item.content = content
+    }
+}
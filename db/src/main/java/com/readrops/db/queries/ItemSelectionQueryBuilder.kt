@@ -5,16 +5,18 @@ import androidx.sqlite.db.SupportSQLiteQueryBuilder
 
 object ItemSelectionQueryBuilder {
 
-    private val COLUMNS = arrayOf("Item.id", "Item.remoteId", "title", "Item.description", "content",
-            "link", "pub_date", "image_link", "author", "Item.read", "text_color",
+    private val COLUMNS = arrayOf("Item.id", "Item.remoteId", "title",
+            "DescriptionBody.text as description", "ContentBody.text as content", "link", "pub_date", "image_link", "author", "Item.read", "text_color",
             "background_color", "read_time", "Feed.name", "Feed.id as feedId", "siteUrl",
             "Folder.id as folder_id", "Folder.name as folder_name")
 
     private val SEPARATE_STATE_COLUMNS = arrayOf("case When ItemState.starred = 1 Then 1 else 0 End starred")
 
-    private const val JOIN = "Item Inner Join Feed On Item.feed_id = Feed.id Left Join Folder on Folder.id = Feed.folder_id"
+    private const val JOIN = "Item Inner Join Feed On Item.feed_id = Feed.id Left Join Folder on Folder.id = Feed.folder_id" +
+            " Left Join ItemBody DescriptionBody On DescriptionBody.hash = Item.description_hash" +
+            " Left Join ItemBody ContentBody On ContentBody.hash = Item.content_hash"
 
-    private const val SEPARATE_STATE_JOIN = " Left Join ItemState On ItemState.remote_id = Item.remoteId"
+    private const val SEPARATE_STATE_JOIN = " Left Join ItemState On ItemState.remote_id = Item.remoteId And ItemState.account_id = Feed.account_id"
 
     /**
      * @param separateState Indicates if item state must be retrieved from ItemState table
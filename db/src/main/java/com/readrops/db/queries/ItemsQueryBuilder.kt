@@ -8,6 +8,7 @@ import com.readrops.db.filters.ListSortType
 object ItemsQueryBuilder {
 
     private val COLUMNS = arrayOf("Item.id", "Item.remoteId", "title", "clean_description", "image_link", "pub_date",
+            "pub_date as sort_date",
             "read_it_later", "Feed.name", "text_color", "background_color", "icon_url", "read_time",
             "Feed.id as feedId", "Feed.account_id", "Folder.id as folder_id", "Folder.name as folder_name")
 
@@ -19,39 +20,102 @@ object ItemsQueryBuilder {
     private val SELECT_ALL_JOIN = """Item INNER JOIN Feed on Item.feed_id = Feed.id
             LEFT JOIN Folder on Feed.folder_id = Folder.id """.trimIndent()
 
-    private const val SEPARATE_STATE_JOIN = "LEFT JOIN ItemState On Item.remoteId = ItemState.remote_id"
+    private const val SEPARATE_STATE_JOIN = "LEFT JOIN ItemState On Item.remoteId = ItemState.remote_id And ItemState.account_id = Feed.account_id"
 
-    private const val ORDER_BY_ASC = "pub_date DESC"
+    /**
+     * Items matching the search, items matching in their title first, then the ones with the most matches.
+     * The match count is the number of integers returned by offsets(), four per match.
+     */
+    private val SEARCH_JOIN = """INNER JOIN (Select rowid as search_id,
+            rowid In (Select rowid From ItemSearch Where title Match ?) as search_title,
+            (length(offsets(ItemSearch)) - length(replace(offsets(ItemSearch), ' ', '')) + 1) / 4 as search_rank
+            From ItemSearch Where ItemSearch Match ?) ItemSearchResult On ItemSearchResult.search_id = Item.id""".trimIndent()
 
-    private const val ORDER_BY_DESC = "pub_date ASC"
+    private val SEARCH_COLUMNS = arrayOf("search_title", "search_rank")
+
+    private val WHITESPACES = Regex("\\s+")
 
     @JvmStatic
     fun buildItemsQuery(queryFilters: QueryFilters, separateState: Boolean): SupportSQLiteQuery =
-            buildQuery(queryFilters, separateState)
+            buildQuery(queryFilters, separateState, null)
 
     @JvmStatic
     fun buildItemsQuery(queryFilters: QueryFilters): SupportSQLiteQuery =
-            buildQuery(queryFilters, false)
+            buildQuery(queryFilters, false, null)
+
+    /**
+     * Query of a single page of items, located by the sort values of an item instead of an offset
+     * so its cost doesn't depend on how deep the page is in the list.
+     */
+    @JvmStatic
+    fun buildItemsPageQuery(queryFilters: QueryFilters, separateState: Boolean, page: ItemsPage): SupportSQLiteQuery =
+            buildQuery(queryFilters, separateState, page)
 
-    private fun buildQuery(queryFilters: QueryFilters, separateState: Boolean): SupportSQLiteQuery = with(queryFilters) {
+    private fun buildQuery(queryFilters: QueryFilters, separateState: Boolean, page: ItemsPage?): SupportSQLiteQuery = with(queryFilters) {
         if (accountId == 0)
             throw IllegalArgumentException("AccountId must be greater than 0")
 
         if (filterType == FilterType.FEED_FILTER && filterFeedId == 0)
             throw IllegalArgumentException("FeedId must be greater than 0 if current filter is FEED_FILTER")
 
-        val columns = if (separateState) COLUMNS.plus(SEPARATE_STATE_COLUMNS) else COLUMNS.plus(OTHER_COLUMNS)
-        val selectAllJoin = if (separateState) SELECT_ALL_JOIN + SEPARATE_STATE_JOIN else SELECT_ALL_JOIN
+        var columns = if (separateState) COLUMNS.plus(SEPARATE_STATE_COLUMNS) else COLUMNS.plus(OTHER_COLUMNS)
+        var selectAllJoin = if (separateState) SELECT_ALL_JOIN + SEPARATE_STATE_JOIN else SELECT_ALL_JOIN
+        val matchQuery = searchQuery?.let { buildMatchQuery(it) }
+        if (matchQuery != null) {
+            columns += SEARCH_COLUMNS
+            selectAllJoin += " $SEARCH_JOIN"
+        }
+
+        val sortColumns = buildSortColumns(sortType, matchQuery != null)
+        // a page before the key is read backwards, from the key
+        val backward = page?.direction == PageDirection.BEFORE
+
+        var where = buildWhereClause(this, separateState)
+        if (page?.key != null) {
+            val values = page.key.values(matchQuery != null)
+            where += " And (${buildKeyCondition(sortColumns, values, backward, page.direction == PageDirection.FROM)})"
+        }
 
         SupportSQLiteQueryBuilder.builder(selectAllJoin).run {
             columns(columns)
-            selection(buildWhereClause(this@with, separateState), null)
-            orderBy(if (sortType == ListSortType.NEWEST_TO_OLDEST) ORDER_BY_ASC else ORDER_BY_DESC)
+            // the where clause has no argument, they are the ones of the search join
+            selection(where, matchQuery?.let { arrayOf(it, it) })
+            orderBy(sortColumns.joinToString { "${it.name} ${if (it.descending != backward) "DESC" else "ASC"}" })
+            if (page != null) limit(page.size.toString())
 
             create()
         }
     }
 
+    /**
+     * The item id comes last so two items never have the same position in the list.
+     * Search results are ranked first, items matching in their title, then the ones with the most matches.
+     */
+    private fun buildSortColumns(sortType: ListSortType, search: Boolean): List<SortColumn> {
+        val descending = sortType == ListSortType.NEWEST_TO_OLDEST
+        val columns = listOf(SortColumn("pub_date", descending), SortColumn("Item.id", descending))
+
+        return if (search) listOf(SortColumn("search_title", true), SortColumn("search_rank", true)) + columns else columns
+    }
+
+    /**
+     * Items located after the key in the sort order, without row values which old SQLite versions don't support :
+     * c1 > v1 Or (c1 = v1 And (c2 > v2 Or (c2 = v2 And ...))).
+     * The first column is also compared alone so its index can be used to seek to the key.
+     */
+    private fun buildKeyCondition(columns: List<SortColumn>, values: List<Number>, backward: Boolean, includeKey: Boolean): String {
+        fun SortColumn.operator() = if (descending != backward) "<" else ">"
+
+        var condition = columns.last().run { "$name ${operator()}${if (includeKey) "=" else ""} ${values.last()}" }
+        for (index in columns.size - 2 downTo 0) {
+            val column = columns[index]
+            condition = "${column.name} ${column.operator()} ${values[index]} " +
+                    "Or (${column.name} = ${values[index]} And ($condition))"
+        }
+
+        return columns.first().run { "$name ${operator()}= ${values.first()} And ($condition)" }
+    }
+
     private fun buildWhereClause(queryFilters: QueryFilters, separateState: Boolean): String = StringBuilder(500).run {
         append("Feed.account_id = ${queryFilters.accountId} And ")
 
@@ -79,13 +143,64 @@ object ItemsQueryBuilder {
         toString()
     }
 
+    /**
+     * Turns the text typed by the user into a full-text query matching items containing all its words,
+     * the words being prefixes so results show up while typing.
+     * Each word is quoted, the FTS query syntax can't be used.
+     * @return null if [search] has no word
+     */
+    @JvmStatic
+    fun buildMatchQuery(search: String): String? {
+        val words = search.split(WHITESPACES)
+                .map { it.replace("\"", "").replace("*", "") }
+                .filter { it.isNotBlank() }
+
+        return if (words.isEmpty()) null else words.joinToString(" ") { "\"$it*\"" }
+    }
+}
+
+private class SortColumn(val name: String, val descending: Boolean)
+
+/**
+ * Sort values of an item, locating it in the items list
+ * @param pubDate the raw publication date, in milliseconds
+ * @param searchTitle 1 if the item matches the search in its title, only used while searching
+ * @param searchRank the number of matches of the search, only used while searching
+ */
+data class ItemsKey(val pubDate: Long, val id: Int, val searchTitle: Int = 0, val searchRank: Int = 0) {
+
+    fun values(search: Boolean): List<Number> =
+            if (search) listOf(searchTitle, searchRank, pubDate, id) else listOf(pubDate, id)
 }
 
-class QueryFilters(
+enum class PageDirection {
+    /**
+     * Items following the key
+     */
+    AFTER,
+
+    /**
+     * The key item and the ones following it
+     */
+    FROM,
+
+    /**
+     * Items preceding the key, in the reverse order
+     */
+    BEFORE
+}
+
+/**
+ * @param key null for the first page of the list
+ */
+class ItemsPage(val key: ItemsKey?, val size: Int, val direction: PageDirection = PageDirection.AFTER)
+
+data class QueryFilters(
         var showReadItems: Boolean = true,
         var filterFeedId: Int = 0,
         var filterFolderId: Int = 0,
         var accountId: Int = 0,
         var filterType: FilterType = FilterType.NO_FILTER,
         var sortType: ListSortType = ListSortType.NEWEST_TO_OLDEST,
+        var searchQuery: String? = null,
 )
\ No newline at end of file
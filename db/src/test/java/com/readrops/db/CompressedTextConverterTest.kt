@@ -0,0 +1,95 @@
+package com.readrops.db
+
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertFalse
+import junit.framework.TestCase.assertNull
+import junit.framework.TestCase.assertTrue
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertThrows
+import org.junit.Test
+
+class CompressedTextConverterTest {
+
+    @Test
+    fun nullTest() {
+        assertNull(CompressedTextConverter.fromText(null))
+        assertNull(CompressedTextConverter.toText(null))
+    }
+
+    @Test
+    fun shortTextTest() {
+        val text = "<p>A short description</p>"
+        val bytes = CompressedTextConverter.fromText(text)!!
+
+        assertFalse(CompressedTextConverter.isCompressed(bytes))
+        assertArrayEquals(text.toByteArray(), bytes)
+        assertEquals(text, CompressedTextConverter.toText(bytes))
+    }
+
+    @Test
+    fun emptyTextTest() {
+        assertEquals("", CompressedTextConverter.toText(CompressedTextConverter.fromText("")))
+    }
+
+    @Test
+    fun roundTripTest() {
+        contents.forEach { content ->
+            val bytes = CompressedTextConverter.fromText(content)!!
+
+            assertTrue(CompressedTextConverter.isCompressed(bytes))
+            assertEquals(content, CompressedTextConverter.toText(bytes))
+        }
+    }
+
+    @Test
+    fun nonAsciiRoundTripTest() {
+        val text = "<p>Déjà vu, 日本語, emoji 😀</p>".repeat(20)
+
+        assertEquals(text, CompressedTextConverter.toText(CompressedTextConverter.fromText(text)))
+    }
+
+    @Test
+    fun incompressibleTextTest() {
+        val text = (0 until 200).map { (33 + (it * 7919) % 94).toChar() }.joinToString("")
+        val bytes = CompressedTextConverter.fromText(text)!!
+
+        assertTrue(bytes.size <= text.length)
+        assertEquals(text, CompressedTextConverter.toText(bytes))
+    }
+
+    @Test
+    fun plainTextTest() {
+        contents.forEach { assertEquals(it, CompressedTextConverter.toText(it.toByteArray())) }
+    }
+
+    @Test
+    fun corruptedTextTest() {
+        val bytes = CompressedTextConverter.fromText(contents.first())!!
+
+        assertThrows(IllegalStateException::class.java) {
+            CompressedTextConverter.toText(bytes.copyOf(bytes.size / 2))
+        }
+    }
+
+    /**
+     * Each text is compressed alone, the stored size of a database depends on its item sizes, not on their number.
+     * On 11 MB of HTML documentation split in 1178 sections, texts are stored in 19 % of their size :
+     * 54 % under 1 KB, 36 % from 1 to 4 KB, 24 % from 4 to 16 KB and 15 % above.
+     */
+    @Test
+    fun storedSizeTest() {
+        val rawSize = contents.sumOf { it.toByteArray().size }
+        val storedSize = contents.sumOf { CompressedTextConverter.fromText(it)!!.size }
+
+        println("item contents : $rawSize bytes as text, $storedSize bytes compressed")
+        assertTrue(storedSize < rawSize * 0.6)
+    }
+
+    private val contents by lazy {
+        javaClass.classLoader!!.getResourceAsStream("item_contents.html")
+                .bufferedReader()
+                .use { it.readText() }
+                .split("\n<!-- item -->\n")
+                .map { it.trim() }
+    }
+}